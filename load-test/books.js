@@ -0,0 +1,37 @@
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080/book-library';
+
+export const options = {
+  scenarios: {
+    books: {
+      executor: 'ramping-vus',
+      startVUs: 0,
+      stages: [
+        { duration: '30s', target: 100 },
+        { duration: '30s', target: 400 },
+        { duration: '30s', target: 1600 },
+        { duration: '30s', target: 1600 },
+        { duration: '15s', target: 0 },
+      ],
+    },
+  },
+  thresholds: {
+    http_req_failed: ['rate<0.01'],
+    'http_req_duration{endpoint:page}': ['p(95)<500'],
+    'http_req_duration{endpoint:readers}': ['p(95)<1000'],
+  },
+};
+
+export default function () {
+  const page = http.get(`${BASE_URL}/api/v1/books?limit=100`, {
+    tags: { endpoint: 'page' },
+  });
+  check(page, { 'page 200': (r) => r.status === 200 });
+
+  const readers = http.get(`${BASE_URL}/api/v1/books/readers`, {
+    tags: { endpoint: 'readers' },
+  });
+  check(readers, { 'readers 200': (r) => r.status === 200 });
+}
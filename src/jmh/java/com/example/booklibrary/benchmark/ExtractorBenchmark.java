@@ -0,0 +1,88 @@
+package com.example.booklibrary.benchmark;
+
+import com.example.booklibrary.dao.DaoUtils;
+import com.example.booklibrary.dto.BookDto;
+import com.example.booklibrary.entity.Book;
+import com.example.booklibrary.entity.Reader;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ExtractorBenchmark {
+  @Param({"100", "10000", "100000"})
+  int readers;
+
+  @Param({"10"})
+  int booksPerReader;
+
+  SimpleResultSet readerBooks;
+  SimpleResultSet bookReaders;
+
+  @Setup
+  public void setUp() {
+    readerBooks = new SimpleResultSet();
+    readerBooks.setAutoClose(false);
+    readerBooks.addColumn("readerId", Types.BIGINT, 19, 0);
+    readerBooks.addColumn("readerName", Types.VARCHAR, 255, 0);
+    readerBooks.addColumn("bookId", Types.BIGINT, 19, 0);
+    readerBooks.addColumn("bookName", Types.VARCHAR, 255, 0);
+    readerBooks.addColumn("bookAuthor", Types.VARCHAR, 255, 0);
+    readerBooks.addColumn("bookCount", Types.INTEGER, 10, 0);
+    bookReaders = new SimpleResultSet();
+    bookReaders.setAutoClose(false);
+    bookReaders.addColumn("bookId", Types.BIGINT, 19, 0);
+    bookReaders.addColumn("bookName", Types.VARCHAR, 255, 0);
+    bookReaders.addColumn("bookAuthor", Types.VARCHAR, 255, 0);
+    bookReaders.addColumn("reader_id", Types.BIGINT, 19, 0);
+    bookReaders.addColumn("readerId", Types.BIGINT, 19, 0);
+    bookReaders.addColumn("readerName", Types.VARCHAR, 255, 0);
+    long bookId = 0;
+    for (long readerId = 1; readerId <= readers; readerId++) {
+      for (int i = 0; i < booksPerReader; i++) {
+        bookId++;
+        readerBooks.addRow(
+            readerId,
+            "Reader " + readerId,
+            bookId,
+            "Book " + bookId,
+            "Author " + bookId % 100,
+            booksPerReader);
+        bookReaders.addRow(
+            bookId,
+            "Book " + bookId,
+            "Author " + bookId % 100,
+            readerId,
+            readerId,
+            "Reader " + readerId);
+      }
+    }
+  }
+
+  @Benchmark
+  public Map<Reader, List<BookDto>> readerBooksExtractor() throws SQLException {
+    readerBooks.beforeFirst();
+    return DaoUtils.getReaderBooksExtractor().extractData(readerBooks);
+  }
+
+  @Benchmark
+  public Map<Reader, List<BookDto>> orderedReaderBooksExtractor() throws SQLException {
+    readerBooks.beforeFirst();
+    return DaoUtils.getOrderedReaderBooksExtractor().extractData(readerBooks);
+  }
+
+  @Benchmark
+  public Map<Book, Reader> bookReaderExtractor() throws SQLException {
+    bookReaders.beforeFirst();
+    return DaoUtils.getBookReaderExtractor().extractData(bookReaders);
+  }
+}
@@ -0,0 +1,68 @@
+package com.example.booklibrary.benchmark;
+
+import com.example.booklibrary.dao.BookDaoImpl;
+import com.example.booklibrary.dao.ReaderDaoImpl;
+import com.example.booklibrary.dto.ReaderWithBooksDto;
+import com.example.booklibrary.service.CatalogVersion;
+import com.example.booklibrary.service.LibraryService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class LibraryServiceBenchmark {
+  @Param({"100", "10000"})
+  int readers;
+
+  @Param({"10"})
+  int booksPerReader;
+
+  LibraryService libraryService;
+
+  @Setup
+  public void setUp() {
+    var dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:benchmark-" + readers + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+    dataSource.setUser("sa");
+    Flyway.configure()
+        .dataSource(dataSource)
+        .locations("classpath:db/migration", "classpath:db/vendor/h2")
+        .load()
+        .migrate();
+
+    var jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute("DELETE FROM book");
+    jdbcTemplate.execute("DELETE FROM reader");
+    List<Object[]> readerRows = new ArrayList<>();
+    List<Object[]> bookRows = new ArrayList<>();
+    long bookId = 0;
+    for (long readerId = 1; readerId <= readers; readerId++) {
+      readerRows.add(new Object[] {readerId, "Reader " + readerId});
+      for (int i = 0; i < booksPerReader; i++) {
+        bookId++;
+        bookRows.add(new Object[] {bookId, "Book " + bookId, "Author " + bookId % 100, readerId});
+      }
+    }
+    jdbcTemplate.batchUpdate("INSERT INTO reader(id, name) VALUES(?, ?)", readerRows);
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO book(id, name, author, reader_id) VALUES(?, ?, ?, ?)", bookRows);
+
+    libraryService =
+        new LibraryService(
+            new BookDaoImpl(jdbcTemplate), new ReaderDaoImpl(jdbcTemplate), new CatalogVersion());
+  }
+
+  @Benchmark
+  public List<ReaderWithBooksDto> findAllReadersWithBooks() {
+    return libraryService.findAllReadersWithBooks();
+  }
+}
@@ -0,0 +1,48 @@
+package com.example.booklibrary.benchmark;
+
+import com.example.booklibrary.dto.BookDto;
+import com.example.booklibrary.dto.BookWithReaderDto;
+import com.example.booklibrary.dto.ReaderWithBooksDto;
+import com.example.booklibrary.entity.Book;
+import com.example.booklibrary.entity.Reader;
+import com.example.booklibrary.mapper.BookMapper;
+import com.example.booklibrary.mapper.ReaderMapper;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MapperBenchmark {
+  @Param({"10"})
+  int booksPerReader;
+
+  Book book;
+  Reader reader;
+  List<BookDto> books;
+
+  @Setup
+  public void setUp() {
+    book = new Book(1L, "Martin Eden", "Jack London", 1L, 0L);
+    reader = new Reader(1L, "Yevhenii");
+    books =
+        LongStream.rangeClosed(1, booksPerReader)
+            .mapToObj(id -> new BookDto(id, "Book " + id, "Author " + id))
+            .toList();
+  }
+
+  @Benchmark
+  public BookWithReaderDto bookToBookDto() {
+    return BookMapper.INSTANCE.bookToBookDto(book, reader);
+  }
+
+  @Benchmark
+  public ReaderWithBooksDto readerToDto() {
+    return ReaderMapper.INSTANCE.readerToDto(reader, books);
+  }
+}
@@ -0,0 +1,85 @@
+package com.example.booklibrary.benchmark;
+
+import com.example.booklibrary.dao.DaoUtils;
+import com.example.booklibrary.dto.BookDto;
+import com.example.booklibrary.entity.Book;
+import com.example.booklibrary.entity.Reader;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.RowMapperResultSetExtractor;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class RowMapperBenchmark {
+  @Param({"1000000"})
+  int rows;
+
+  SimpleResultSet books;
+  SimpleResultSet readers;
+
+  @Setup
+  public void setUp() {
+    books = new SimpleResultSet();
+    books.setAutoClose(false);
+    books.addColumn("id", Types.BIGINT, 19, 0);
+    books.addColumn("name", Types.VARCHAR, 255, 0);
+    books.addColumn("author", Types.VARCHAR, 255, 0);
+    books.addColumn("reader_id", Types.BIGINT, 19, 0);
+    books.addColumn("version", Types.BIGINT, 19, 0);
+    readers = new SimpleResultSet();
+    readers.setAutoClose(false);
+    readers.addColumn("id", Types.BIGINT, 19, 0);
+    readers.addColumn("name", Types.VARCHAR, 255, 0);
+    for (long id = 1; id <= rows; id++) {
+      books.addRow(id, "Book " + id, "Author " + id % 1000, id % 3 == 0 ? null : id % 1000, 0L);
+      readers.addRow(id, "Reader " + id);
+    }
+  }
+
+  @Benchmark
+  public void bookBeanProperty(Blackhole blackhole) throws SQLException {
+    blackhole.consume(map(books, new BeanPropertyRowMapper<>(Book.class)));
+  }
+
+  @Benchmark
+  public void bookIndexed(Blackhole blackhole) throws SQLException {
+    blackhole.consume(map(books, DaoUtils.getBookRowMapper()));
+  }
+
+  @Benchmark
+  public void bookDtoBeanProperty(Blackhole blackhole) throws SQLException {
+    blackhole.consume(map(books, new BeanPropertyRowMapper<>(BookDto.class)));
+  }
+
+  @Benchmark
+  public void bookDtoIndexed(Blackhole blackhole) throws SQLException {
+    blackhole.consume(map(books, DaoUtils.getBookDtoRowMapper()));
+  }
+
+  @Benchmark
+  public void readerBeanProperty(Blackhole blackhole) throws SQLException {
+    blackhole.consume(map(readers, new BeanPropertyRowMapper<>(Reader.class)));
+  }
+
+  @Benchmark
+  public void readerIndexed(Blackhole blackhole) throws SQLException {
+    blackhole.consume(map(readers, DaoUtils.getReaderRowMapper()));
+  }
+
+  private <T> List<T> map(SimpleResultSet resultSet, RowMapper<T> rowMapper)
+      throws SQLException {
+    resultSet.beforeFirst();
+    return new RowMapperResultSetExtractor<>(rowMapper, rows).extractData(resultSet);
+  }
+}
@@ -8,6 +8,7 @@ import jakarta.validation.ConstraintViolationException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -49,6 +50,16 @@ public class GlobalExceptionHandler {
     return ResponseEntity.badRequest().body(errorResponse);
   }
 
+  @ExceptionHandler(BookVersionMismatchException.class)
+  public ResponseEntity<ErrorResponse> handleVersionMismatch(BookVersionMismatchException ex) {
+    var errorResponse =
+        ErrorResponse.builder()
+            .localDateTime(LocalDateTime.now())
+            .errorMessage(ex.getMessage())
+            .build();
+    return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(errorResponse);
+  }
+
   @ExceptionHandler(ConstraintViolationException.class)
   public ResponseEntity<ErrorResponse> handlePathVariablesInvalidArguments(
       ConstraintViolationException ex) {
@@ -0,0 +1,122 @@
+package com.example.booklibrary.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+public class BoundedTtlCache extends AbstractValueAdaptingCache {
+  private final String name;
+  private final long ttlNanos;
+  private final LongSupplier ticker;
+  private final Map<Object, Entry> entries;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder puts = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public BoundedTtlCache(String name, int maximumSize, Duration ttl) {
+    this(name, maximumSize, ttl, System::nanoTime);
+  }
+
+  BoundedTtlCache(String name, int maximumSize, Duration ttl, LongSupplier ticker) {
+    super(false);
+    this.name = name;
+    this.ttlNanos = ttl.toNanos();
+    this.ticker = ticker;
+    this.entries =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+            if (size() > maximumSize) {
+              evictions.increment();
+              return true;
+            }
+            return false;
+          }
+        };
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return entries;
+  }
+
+  @Override
+  protected synchronized Object lookup(Object key) {
+    var entry = entries.get(key);
+    if (entry != null && entry.expiresAt - ticker.getAsLong() <= 0) {
+      entries.remove(key);
+      evictions.increment();
+      entry = null;
+    }
+    if (entry == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return entry.value;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    var value = lookup(key);
+    if (value != null) {
+      return (T) fromStoreValue(value);
+    }
+    try {
+      var loaded = valueLoader.call();
+      put(key, loaded);
+      return loaded;
+    } catch (Exception ex) {
+      throw new ValueRetrievalException(key, valueLoader, ex);
+    }
+  }
+
+  @Override
+  public synchronized void put(Object key, Object value) {
+    entries.put(key, new Entry(toStoreValue(value), ticker.getAsLong() + ttlNanos));
+    puts.increment();
+  }
+
+  @Override
+  public synchronized void evict(Object key) {
+    entries.remove(key);
+  }
+
+  @Override
+  public synchronized void clear() {
+    entries.clear();
+  }
+
+  public synchronized long size() {
+    return entries.size();
+  }
+
+  public long hitCount() {
+    return hits.sum();
+  }
+
+  public long missCount() {
+    return misses.sum();
+  }
+
+  public long putCount() {
+    return puts.sum();
+  }
+
+  public long evictionCount() {
+    return evictions.sum();
+  }
+
+  private record Entry(Object value, long expiresAt) {}
+}
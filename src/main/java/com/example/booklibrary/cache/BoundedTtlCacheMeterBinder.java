@@ -0,0 +1,39 @@
+package com.example.booklibrary.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+public class BoundedTtlCacheMeterBinder extends CacheMeterBinder<BoundedTtlCache> {
+  public BoundedTtlCacheMeterBinder(BoundedTtlCache cache, Iterable<Tag> tags) {
+    super(cache, cache.getName(), tags);
+  }
+
+  @Override
+  protected Long size() {
+    return getCache().size();
+  }
+
+  @Override
+  protected long hitCount() {
+    return getCache().hitCount();
+  }
+
+  @Override
+  protected Long missCount() {
+    return getCache().missCount();
+  }
+
+  @Override
+  protected Long evictionCount() {
+    return getCache().evictionCount();
+  }
+
+  @Override
+  protected long putCount() {
+    return getCache().putCount();
+  }
+
+  @Override
+  protected void bindImplementationSpecificMetrics(MeterRegistry registry) {}
+}
@@ -0,0 +1,143 @@
+package com.example.booklibrary.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+public class SerializedResponseCache implements MeterBinder {
+  private final ObjectMapper objectMapper;
+  private final Supplier<String> version;
+  private final long maxStalenessNanos;
+  private final LongSupplier ticker;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public SerializedResponseCache(
+      ObjectMapper objectMapper, Supplier<String> version, Duration maxStaleness) {
+    this(objectMapper, version, maxStaleness, System::nanoTime);
+  }
+
+  SerializedResponseCache(
+      ObjectMapper objectMapper,
+      Supplier<String> version,
+      Duration maxStaleness,
+      LongSupplier ticker) {
+    this.objectMapper = objectMapper;
+    this.version = version;
+    this.maxStalenessNanos = maxStaleness.toNanos();
+    this.ticker = ticker;
+  }
+
+  /**
+   * Returns the cached bytes for {@code key} or loads them. The load runs outside the map so
+   * that other keys never wait behind a database query; concurrent requests for the same key
+   * share the in-flight load.
+   */
+  public byte[] get(String key, Supplier<?> loader) {
+    if (maxStalenessNanos <= 0) {
+      misses.increment();
+      return serialize(loader.get());
+    }
+    var currentVersion = version.get();
+    while (true) {
+      var entry = entries.get(key);
+      if (isFresh(entry, currentVersion)) {
+        hits.increment();
+        return await(entry.body());
+      }
+      var loading = new Entry(currentVersion, ticker.getAsLong(), new CompletableFuture<>());
+      var installed =
+          entry == null
+              ? entries.putIfAbsent(key, loading) == null
+              : entries.replace(key, entry, loading);
+      if (installed) {
+        misses.increment();
+        return load(key, loading, loader);
+      }
+    }
+  }
+
+  public long hitCount() {
+    return hits.sum();
+  }
+
+  public long missCount() {
+    return misses.sum();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("library.response.cache.requests", hits, LongAdder::sum)
+        .description("Aggregate responses served from serialized bytes")
+        .tag("result", "hit")
+        .register(registry);
+    FunctionCounter.builder("library.response.cache.requests", misses, LongAdder::sum)
+        .description("Aggregate responses served from serialized bytes")
+        .tag("result", "miss")
+        .register(registry);
+    Gauge.builder("library.response.cache.hit.ratio", this, SerializedResponseCache::hitRatio)
+        .description("Share of aggregate responses served from serialized bytes")
+        .register(registry);
+  }
+
+  private double hitRatio() {
+    long hitCount = hits.sum();
+    long total = hitCount + misses.sum();
+    return total == 0 ? 0.0 : (double) hitCount / total;
+  }
+
+  private boolean isFresh(Entry entry, String currentVersion) {
+    return entry != null
+        && entry.version().equals(currentVersion)
+        && ticker.getAsLong() - entry.createdAt() < maxStalenessNanos;
+  }
+
+  private byte[] load(String key, Entry loading, Supplier<?> loader) {
+    try {
+      var body = serialize(loader.get());
+      loading.body().complete(body);
+      return body;
+    } catch (RuntimeException | Error ex) {
+      entries.remove(key, loading);
+      loading.body().completeExceptionally(ex);
+      throw ex;
+    }
+  }
+
+  private static byte[] await(CompletableFuture<byte[]> body) {
+    try {
+      return body.join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (ex.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw ex;
+    }
+  }
+
+  private byte[] serialize(Object value) {
+    try {
+      return objectMapper.writeValueAsBytes(value);
+    } catch (JsonProcessingException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private record Entry(String version, long createdAt, CompletableFuture<byte[]> body) {}
+}
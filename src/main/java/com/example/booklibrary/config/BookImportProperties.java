@@ -0,0 +1,10 @@
+package com.example.booklibrary.config;
+
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+@Validated
+@ConfigurationProperties(prefix = "library.books.import")
+public record BookImportProperties(@DefaultValue("1000") @Positive int chunkSize) {}
@@ -0,0 +1,45 @@
+package com.example.booklibrary.config;
+
+import com.example.booklibrary.cache.BoundedTtlCache;
+import com.example.booklibrary.cache.BoundedTtlCacheMeterBinder;
+import com.example.booklibrary.cache.SerializedResponseCache;
+import com.example.booklibrary.service.CatalogVersion;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CachingConfig {
+  public static final String BOOKS_CACHE = "books";
+  public static final String READERS_CACHE = "readers";
+
+  @Bean
+  public CacheManager cacheManager(LookupCacheProperties properties) {
+    var cacheManager = new SimpleCacheManager();
+    cacheManager.setCaches(
+        List.of(
+            new BoundedTtlCache(BOOKS_CACHE, properties.maximumSize(), properties.ttl()),
+            new BoundedTtlCache(READERS_CACHE, properties.maximumSize(), properties.ttl())));
+    return cacheManager;
+  }
+
+  @Bean
+  public CacheMeterBinderProvider<BoundedTtlCache> boundedTtlCacheMeterBinderProvider() {
+    return BoundedTtlCacheMeterBinder::new;
+  }
+
+  @Bean
+  public SerializedResponseCache serializedResponseCache(
+      ObjectMapper objectMapper,
+      CatalogVersion catalogVersion,
+      ResponseCacheProperties properties) {
+    return new SerializedResponseCache(
+        objectMapper, catalogVersion::current, properties.maxStaleness());
+  }
+}
@@ -0,0 +1,13 @@
+package com.example.booklibrary.config;
+
+import jakarta.validation.constraints.Positive;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+@Validated
+@ConfigurationProperties(prefix = "library.concurrency")
+public record ConcurrencyLimitProperties(
+    @DefaultValue("200") @Positive int maxInFlight,
+    @DefaultValue("1s") Duration acquireTimeout) {}
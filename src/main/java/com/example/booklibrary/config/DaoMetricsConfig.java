@@ -0,0 +1,34 @@
+package com.example.booklibrary.config;
+
+import com.example.booklibrary.metrics.DaoMetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.stereotype.Repository;
+
+@Configuration
+@ConditionalOnProperty(prefix = "library.metrics.dao", name = "enabled", havingValue = "true")
+public class DaoMetricsConfig {
+
+  @Bean
+  public static DaoMetricsPostProcessor daoMetricsPostProcessor(
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    return new DaoMetricsPostProcessor(meterRegistry);
+  }
+
+  static class DaoMetricsPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+    DaoMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+      this.advisor =
+          new DefaultPointcutAdvisor(
+              new AnnotationMatchingPointcut(Repository.class, true),
+              new DaoMetricsInterceptor(meterRegistry::getObject));
+      this.beforeExistingAdvisors = true;
+      setProxyTargetClass(true);
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package com.example.booklibrary.config;
+
+import com.example.booklibrary.logging.AsyncHttpLogWriter.OverflowPolicy;
+import jakarta.validation.constraints.Positive;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+@Validated
+@ConfigurationProperties(prefix = "library.http-log")
+public record HttpLogProperties(
+    @DefaultValue("true") boolean async,
+    @DefaultValue("1024") @Positive int bufferSize,
+    @DefaultValue("DROP") OverflowPolicy overflowPolicy,
+    @DefaultValue("100") @Positive int overflowSampleRate,
+    @DefaultValue("4096") @Positive int maxRecordLength,
+    @DefaultValue("1") @Positive int sampleRate,
+    @DefaultValue({}) List<String> headersOnlyPaths) {}
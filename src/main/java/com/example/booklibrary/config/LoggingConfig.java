@@ -1,12 +1,16 @@
 package com.example.booklibrary.config;
+import com.example.booklibrary.logging.AsyncHttpLogWriter;
+import com.example.booklibrary.logging.SamplingHttpLogStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.zalando.logbook.Correlation;
 import org.zalando.logbook.HttpLogWriter;
 import org.zalando.logbook.Logbook;
 import org.zalando.logbook.Precorrelation;
+import org.zalando.logbook.Strategy;
 
 import java.io.IOException;
 
@@ -14,10 +18,28 @@ import java.io.IOException;
 public class LoggingConfig {
 
     @Bean
+    @ConditionalOnProperty(prefix = "library.http-log", name = "async", havingValue = "false")
     public HttpLogWriter httpLogWriter() {
         return new InfoLevelHttpLogWriter();
     }
 
+    @Bean
+    @ConditionalOnProperty(
+            prefix = "library.http-log", name = "async", havingValue = "true", matchIfMissing = true)
+    public AsyncHttpLogWriter asyncHttpLogWriter(HttpLogProperties properties) {
+        return new AsyncHttpLogWriter(
+                new InfoLevelHttpLogWriter(),
+                properties.bufferSize(),
+                properties.overflowPolicy(),
+                properties.overflowSampleRate(),
+                properties.maxRecordLength());
+    }
+
+    @Bean
+    public Strategy httpLogStrategy(HttpLogProperties properties) {
+        return new SamplingHttpLogStrategy(properties.sampleRate(), properties.headersOnlyPaths());
+    }
+
     static class InfoLevelHttpLogWriter implements HttpLogWriter {
 
         private final Logger log = LoggerFactory.getLogger(Logbook.class);
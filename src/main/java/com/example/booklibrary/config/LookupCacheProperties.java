@@ -0,0 +1,12 @@
+package com.example.booklibrary.config;
+
+import jakarta.validation.constraints.Positive;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+@Validated
+@ConfigurationProperties(prefix = "library.cache")
+public record LookupCacheProperties(
+    @DefaultValue("10000") @Positive int maximumSize, @DefaultValue("10m") Duration ttl) {}
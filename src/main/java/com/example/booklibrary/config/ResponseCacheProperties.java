@@ -0,0 +1,10 @@
+package com.example.booklibrary.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+@Validated
+@ConfigurationProperties(prefix = "library.response-cache")
+public record ResponseCacheProperties(@DefaultValue("30s") Duration maxStaleness) {}
@@ -0,0 +1,9 @@
+package com.example.booklibrary.config;
+
+import java.nio.file.Path;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Validated
+@ConfigurationProperties(prefix = "library.search-index")
+public record SearchIndexProperties(Path snapshot) {}
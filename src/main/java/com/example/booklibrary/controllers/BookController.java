@@ -1,28 +1,67 @@
 package com.example.booklibrary.controllers;
 
+import com.example.booklibrary.cache.SerializedResponseCache;
+import com.example.booklibrary.dto.AggregateScope;
 import com.example.booklibrary.dto.BookDto;
+import com.example.booklibrary.dto.BookImportResultDto;
+import com.example.booklibrary.dto.BookQueryDto;
+import com.example.booklibrary.dto.BookSearchResultDto;
+import com.example.booklibrary.dto.BookSortKey;
 import com.example.booklibrary.dto.BookWithReaderDto;
+import com.example.booklibrary.dto.CirculationRequestDto;
+import com.example.booklibrary.dto.CirculationResultDto;
 import com.example.booklibrary.entity.Book;
 import com.example.booklibrary.entity.Reader;
+import com.example.booklibrary.exception.BookVersionMismatchException;
+import com.example.booklibrary.exception.LibraryServiceException;
 import com.example.booklibrary.exception.ReaderNotFoundException;
 import com.example.booklibrary.exception.SaveBookException;
+import com.example.booklibrary.service.BookImportService;
 import com.example.booklibrary.service.LibraryService;
+import com.example.booklibrary.util.CursorUtils;
+import com.example.booklibrary.util.ETagUtils;
+import com.example.booklibrary.util.HeaderUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
 
 @Validated
 @RestController
@@ -30,9 +69,46 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 @Tag(name = "Book API", description = "Endpoints for operations about book")
 public class BookController {
+  static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+  private static final String BOOKS_WITH_READERS_KEY = "books-with-readers";
+  private static final String ALL_BOOKS_WITH_READERS_KEY = "all-books-with-readers";
+  private static final int DEFAULT_PAGE_SIZE = 100;
+  private static final int MAX_PAGE_SIZE = 1000;
+  private static final int MAX_CIRCULATION_BATCH_SIZE = 500;
+  private static final int MIN_SEARCH_QUERY_LENGTH = 3;
+  private static final int MAX_SEARCH_QUERY_LENGTH = 100;
+  private static final String SEARCH_QUERY_SIZE_MESSAGE =
+      "Search query must be between "
+          + MIN_SEARCH_QUERY_LENGTH
+          + " and "
+          + MAX_SEARCH_QUERY_LENGTH
+          + " characters";
+  // Bounds the length of the query without its surrounding whitespace, as the service trims it.
+  private static final String SEARCH_QUERY_PATTERN =
+      "(?s)\\s*\\S.{"
+          + (MIN_SEARCH_QUERY_LENGTH - 2)
+          + ","
+          + (MAX_SEARCH_QUERY_LENGTH - 2)
+          + "}\\S\\s*";
   private final LibraryService libraryService;
+  private final BookImportService bookImportService;
+  private final ObjectMapper objectMapper;
+  private final SerializedResponseCache responseCache;
 
-  @Operation(summary = "Get all books from the library", description = "Returns a list of books")
+  @Operation(
+      summary = "Get all books from the library",
+      description =
+          "Returns a list of books. When 'after' or 'limit' is given, returns one page ordered by"
+              + " ID and a 'Link' header with the next page when more books may follow. The"
+              + " 'available', 'author' and 'readerId' filters and the 'sort' key also return one"
+              + " page; the next page continues from 'after' and, unless sorted by ID, from"
+              + " 'afterValue', or from the opaque 'cursor' returned in the 'X-Next-Cursor'"
+              + " header. When 'ids'"
+              + " is given, returns these books in the requested order and lists unknown IDs in"
+              + " the 'X-Missing-Ids' header. The weak"
+              + " 'ETag' tracks the catalog version, and 'If-None-Match' with the current ETag"
+              + " responds with 304")
+  @ApiResponse(responseCode = "304", description = "Catalog has not changed")
   @ApiResponse(
       responseCode = "200",
       description = "Successfully retrieved",
@@ -58,9 +134,218 @@ public class BookController {
                                           ]
                                           """)))
   @GetMapping("/books")
-  public ResponseEntity<List<BookDto>> getBooks() {
-    var books = libraryService.findAllBooks();
-    return ResponseEntity.ok(books);
+  public ResponseEntity<List<BookDto>> getBooks(
+      @RequestParam(value = "after", required = false)
+          @PositiveOrZero(message = "Cursor must not be negative")
+          @Parameter(description = "Return books with ID greater than this cursor", example = "2")
+          Long after,
+      @RequestParam(value = "limit", required = false)
+          @Min(value = 1, message = "Page limit must be between 1 and " + MAX_PAGE_SIZE)
+          @Max(value = MAX_PAGE_SIZE, message = "Page limit must be between 1 and " + MAX_PAGE_SIZE)
+          @Parameter(description = "Maximum number of books in the page", example = "100")
+          Integer limit,
+      @RequestParam(value = "ids", required = false)
+          @Size(
+              max = MAX_PAGE_SIZE,
+              message = "Cannot request more than " + MAX_PAGE_SIZE + " books by ids")
+          @Parameter(description = "Return only books with these IDs", example = "3,1,2")
+          List<@Positive(message = "Book ID must be a positive number") Long> ids,
+      @RequestParam(value = "available", required = false)
+          @Parameter(description = "Return only books that are (not) borrowed", example = "true")
+          Boolean available,
+      @RequestParam(value = "author", required = false)
+          @Size(max = 255, message = "Author must be shorter than 255 characters")
+          @Parameter(description = "Return only books of this author", example = "George Orwell")
+          String author,
+      @RequestParam(value = "readerId", required = false)
+          @Positive(message = "Reader ID must be a positive number")
+          @Parameter(description = "Return only books borrowed by this reader", example = "1")
+          Long readerId,
+      @RequestParam(value = "sort", required = false)
+          @Parameter(description = "Order of the page, ID by default", example = "NAME")
+          BookSortKey sort,
+      @RequestParam(value = "afterValue", required = false)
+          @Parameter(
+              description = "Sort key of the last book of the previous page",
+              example = "Animal Farm")
+          String afterValue,
+      @RequestParam(value = "cursor", required = false)
+          @Parameter(
+              description =
+                  "'X-Next-Cursor' of the previous page, replaces 'after' and 'afterValue'",
+              example = "MjpBbmltYWwgRmFybQ")
+          String cursor,
+      WebRequest webRequest) {
+    if (webRequest.checkNotModified(ETagUtils.toWeakETag(libraryService.getCatalogVersion()))) {
+      return null;
+    }
+    if (ids != null) {
+      var lookup = libraryService.findBooksByIds(ids);
+      return ResponseEntity.ok()
+          .headers(HeaderUtils.missingIdsHeader(lookup.getMissingIds()))
+          .body(lookup.getFound());
+    }
+    if (cursor != null) {
+      var decoded =
+          CursorUtils.decode(cursor)
+              .orElseThrow(
+                  () ->
+                      new LibraryServiceException(
+                          String.format("'cursor' is not a valid page cursor: %s", cursor)));
+      after = decoded.afterId();
+      afterValue = decoded.afterValue();
+    }
+    var filtered = available != null || author != null || readerId != null || sort != null;
+    if (!filtered && after == null && limit == null) {
+      return ResponseEntity.ok(libraryService.findAllBooks());
+    }
+    int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+    var sortKey = sort != null ? sort : BookSortKey.ID;
+    var books =
+        filtered
+            ? libraryService.findBooks(
+                BookQueryDto.builder()
+                    .available(available)
+                    .author(author)
+                    .readerId(readerId)
+                    .sort(sortKey)
+                    .afterId(after != null ? after : 0L)
+                    .afterValue(afterValue)
+                    .limit(pageSize)
+                    .build())
+            : libraryService.findBooksPage(after != null ? after : 0L, pageSize);
+    if (books.size() < pageSize) {
+      return ResponseEntity.ok(books);
+    }
+    var last = books.get(books.size() - 1);
+    var lastValue =
+        switch (sortKey) {
+          case NAME -> last.getName();
+          case AUTHOR -> last.getAuthor();
+          case ID -> null;
+        };
+    Map<String, Object> nextPage = new LinkedHashMap<>();
+    nextPage.put("after", last.getId());
+    nextPage.put("limit", pageSize);
+    if (lastValue != null) {
+      nextPage.put("afterValue", lastValue);
+    }
+    return ResponseEntity.ok()
+        .header(HttpHeaders.LINK, nextPageLink(nextPage))
+        .header(NEXT_CURSOR_HEADER, CursorUtils.encode(last.getId(), lastValue))
+        .body(books);
+  }
+
+  @Operation(
+      summary = "Search books by name or author",
+      description =
+          "Returns books whose name or author contains the query, ignoring case. Results are"
+              + " ranked: exact name matches first, then name prefixes, author prefixes and any"
+              + " other match, with ties ordered by ID. When more results may follow, the 'Link'"
+              + " header points to the next page")
+  @ApiResponse(
+      responseCode = "200",
+      description = "Successfully retrieved",
+      content =
+          @Content(
+              mediaType = "application/json",
+              examples =
+                  @ExampleObject(
+                      value =
+                          """
+                            [
+                              {
+                                "id": 2,
+                                "name": "1984",
+                                "author": "George Orwell",
+                                "rank": 0
+                              }
+                            ]
+                          """)))
+  @GetMapping("/books/search")
+  public ResponseEntity<List<BookSearchResultDto>> searchBooks(
+      @RequestParam("q")
+          @Pattern(regexp = SEARCH_QUERY_PATTERN, message = SEARCH_QUERY_SIZE_MESSAGE)
+          @Parameter(description = "Text to find in book names and authors", example = "orwell")
+          String query,
+      @RequestParam(value = "afterRank", defaultValue = "0")
+          @PositiveOrZero(message = "Cursor must not be negative")
+          @Parameter(description = "Rank of the last result of the previous page", example = "1")
+          int afterRank,
+      @RequestParam(value = "after", defaultValue = "0")
+          @PositiveOrZero(message = "Cursor must not be negative")
+          @Parameter(description = "ID of the last result of the previous page", example = "2")
+          long after,
+      @RequestParam(value = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE)
+          @Min(value = 1, message = "Page limit must be between 1 and " + MAX_PAGE_SIZE)
+          @Max(value = MAX_PAGE_SIZE, message = "Page limit must be between 1 and " + MAX_PAGE_SIZE)
+          @Parameter(description = "Maximum number of books in the page", example = "100")
+          int limit) {
+    var books = libraryService.searchBooks(query, afterRank, after, limit);
+    if (books.size() < limit) {
+      return ResponseEntity.ok(books);
+    }
+    var last = books.get(books.size() - 1);
+    Map<String, Object> cursor = new LinkedHashMap<>();
+    cursor.put("afterRank", last.getRank());
+    cursor.put("after", last.getId());
+    cursor.put("limit", limit);
+    return ResponseEntity.ok()
+        .header(HttpHeaders.LINK, nextPageLink(cursor))
+        .body(books);
+  }
+
+  @Operation(
+      summary = "Get book by ID",
+      description =
+          "Returns the book with its version in the 'ETag' header. Responds with 304 when"
+              + " 'If-None-Match' contains the current ETag")
+  @ApiResponses({
+    @ApiResponse(
+        responseCode = "200",
+        description = "Successfully retrieved",
+        content =
+            @Content(
+                mediaType = "application/json",
+                examples =
+                    @ExampleObject(
+                        value =
+                            """
+                                {
+                                "id": 1,
+                                "name": "1984",
+                                "author": "George Orwell",
+                                "readerId": 2,
+                                "version": 3
+                                }
+                            """))),
+    @ApiResponse(responseCode = "304", description = "Book has not changed"),
+    @ApiResponse(
+        responseCode = "400",
+        content =
+            @Content(
+                mediaType = "application/json",
+                examples =
+                    @ExampleObject(
+                        name = "Book doesn't exists",
+                        description = "This book ID doesn't exists in the library",
+                        value =
+                            """
+                              {
+                              "localDateTime": "2024-08-05T18:21:51.3133578",
+                              "errorMessage": "This Book ID doesn't exist!"
+                              }
+                            """)))
+  })
+  @GetMapping("/books/{bookId}")
+  public ResponseEntity<Book> getBook(
+      @PathVariable("bookId")
+          @NotNull
+          @Positive(message = "Book ID must be a positive number")
+          @Parameter(description = "Book ID to get", example = "1")
+          Long bookId) {
+    var book = libraryService.findBookById(bookId);
+    return ResponseEntity.ok().eTag(ETagUtils.toETag(book.getVersion())).body(book);
   }
 
   @Operation(
@@ -151,11 +436,88 @@ public class BookController {
     return ResponseEntity.ok(savedBook);
   }
 
+  @Operation(
+      summary = "Import books to the library",
+      description =
+          "Saves a JSON array or an NDJSON stream of books in chunks. Invalid books are skipped"
+              + " and reported with their position in the input")
+  @ApiResponse(
+      responseCode = "200",
+      description = "Successfully imported",
+      content =
+          @Content(
+              mediaType = "application/json",
+              examples =
+                  @ExampleObject(
+                      value =
+                          """
+                            {
+                            "imported": 2,
+                            "rejected": 1,
+                            "chunks":[
+                            {
+                            "chunk": 0,
+                            "ids": [5, 6]
+                            }
+                            ],
+                            "errors":[
+                            {
+                            "item": 1,
+                            "field": "name",
+                            "message": "Book name must be longer than 5 characters, shorter than 100 characters",
+                            "rejectedValue": "asd"
+                            }
+                            ]
+                            }
+                          """)))
+  @io.swagger.v3.oas.annotations.parameters.RequestBody(
+      description = "Books to save in the library",
+      content = {
+        @Content(
+            mediaType = "application/json",
+            examples =
+                @ExampleObject(
+                    value =
+                        """
+                          [
+                          {
+                          "name": "The Great Book",
+                          "author": "John Doe"
+                          },
+                          {
+                          "name": "Martin Eden",
+                          "author": "Jack London"
+                          }
+                          ]
+                        """)),
+        @Content(
+            mediaType = "application/x-ndjson",
+            examples =
+                @ExampleObject(
+                    value =
+                        """
+                          {"name": "The Great Book", "author": "John Doe"}
+                          {"name": "Martin Eden", "author": "Jack London"}
+                        """))
+      })
+  @PostMapping(
+      value = "/books/batch",
+      consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public ResponseEntity<BookImportResultDto> saveBooks(InputStream books) {
+    var result = bookImportService.importBooks(books);
+    return ResponseEntity.ok(result);
+  }
+
   @Operation(
       summary = "Borrow book to reader",
-      description = "Both id's should exist and be positive")
+      description =
+          "Both id's should exist and be positive. With 'If-Match' the book is borrowed only if"
+              + " its ETag still matches, and the new ETag is returned")
   @ApiResponses({
     @ApiResponse(responseCode = "200", description = "Successfully borrowed"),
+    @ApiResponse(
+        responseCode = "412",
+        description = "Book has been changed since the ETag in 'If-Match' was issued"),
     @ApiResponse(
         responseCode = "400",
         content =
@@ -215,16 +577,109 @@ public class BookController {
           @NotNull
           @Positive(message = "Reader ID must be a positive number")
           @Parameter(description = "Reader ID to borrow", example = "1")
-          Long readerId) {
-    libraryService.borrowBook(bookId, readerId);
-    return ResponseEntity.ok().build();
+          Long readerId,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+          @Parameter(description = "ETag of the book version to borrow", example = "\"0\"")
+          String ifMatch) {
+    if (ifMatch == null || ifMatch.equals("*")) {
+      libraryService.borrowBook(bookId, readerId);
+      return ResponseEntity.ok().build();
+    }
+    var version = parseVersion(ifMatch);
+    libraryService.borrowBook(bookId, readerId, version);
+    return ResponseEntity.ok().eTag(ETagUtils.toETag(version + 1)).build();
+  }
+
+  @Operation(
+      summary = "Borrow and return books in one request",
+      description =
+          "Applies up to "
+              + MAX_CIRCULATION_BATCH_SIZE
+              + " borrow and return operations in order, in one transaction. Every operation gets"
+              + " its own status, and rejected operations do not stop the rest")
+  @ApiResponses({
+    @ApiResponse(
+        responseCode = "200",
+        description = "Operations processed",
+        content =
+            @Content(
+                mediaType = "application/json",
+                examples =
+                    @ExampleObject(
+                        value =
+                            """
+                              [
+                              {
+                              "bookId": 1,
+                              "readerId": 2,
+                              "operation": "BORROW",
+                              "status": "SUCCESS",
+                              "errorMessage": null
+                              },
+                              {
+                              "bookId": 3,
+                              "readerId": null,
+                              "operation": "RETURN",
+                              "status": "BOOK_NOT_BORROWED",
+                              "errorMessage": "Cannot return Book. Book is already in the Library!"
+                              }
+                              ]
+                            """))),
+    @ApiResponse(
+        responseCode = "400",
+        content =
+            @Content(
+                mediaType = "application/json",
+                examples =
+                    @ExampleObject(
+                        name = "Invalid operation",
+                        description = "Operation contains a negative book ID",
+                        value =
+                            """
+                              {
+                              "localDateTime": "2024-08-05T17:21:09.9245848",
+                              "errorMessage": "Book ID must be a positive number"
+                              }
+                            """)))
+  })
+  @io.swagger.v3.oas.annotations.parameters.RequestBody(
+      description = "Operations to apply",
+      content =
+          @Content(
+              mediaType = "application/json",
+              examples =
+                  @ExampleObject(
+                      value =
+                          """
+                            [
+                            {"operation": "BORROW", "bookId": 1, "readerId": 2},
+                            {"operation": "RETURN", "bookId": 3}
+                            ]
+                          """)))
+  @PostMapping("/books/circulation")
+  public ResponseEntity<List<CirculationResultDto>> circulateBooks(
+      @RequestBody
+          @NotEmpty(message = "Circulation batch cannot be empty")
+          @Size(
+              max = MAX_CIRCULATION_BATCH_SIZE,
+              message =
+                  "Circulation batch cannot contain more than "
+                      + MAX_CIRCULATION_BATCH_SIZE
+                      + " operations")
+          List<@Valid @NotNull CirculationRequestDto> operations) {
+    return ResponseEntity.ok(libraryService.circulate(operations));
   }
 
   @Operation(
       summary = "Return book to the library",
-      description = "Book ID must exists in the library and be positive")
+      description =
+          "Book ID must exists in the library and be positive. With 'If-Match' the book is"
+              + " returned only if its ETag still matches, and the new ETag is returned")
   @ApiResponses({
     @ApiResponse(responseCode = "200", description = "Successfully returned"),
+    @ApiResponse(
+        responseCode = "412",
+        description = "Book has been changed since the ETag in 'If-Match' was issued"),
     @ApiResponse(
         responseCode = "400",
         content =
@@ -273,9 +728,29 @@ public class BookController {
               description = "Book ID to return",
               example = "1",
               required = true)
-          Long bookId) {
-    libraryService.returnBookToLibrary(bookId);
-    return ResponseEntity.ok().build();
+          Long bookId,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+          @Parameter(description = "ETag of the book version to return", example = "\"1\"")
+          String ifMatch) {
+    if (ifMatch == null || ifMatch.equals("*")) {
+      libraryService.returnBookToLibrary(bookId);
+      return ResponseEntity.ok().build();
+    }
+    var version = parseVersion(ifMatch);
+    libraryService.returnBookToLibrary(bookId, version);
+    return ResponseEntity.ok().eTag(ETagUtils.toETag(version + 1)).build();
+  }
+
+  private static long parseVersion(String ifMatch) {
+    if (ETagUtils.isWeak(ifMatch)) {
+      throw new BookVersionMismatchException(
+          String.format("'If-Match' requires a strong ETag: %s", ifMatch));
+    }
+    return ETagUtils.parseVersion(ifMatch)
+        .orElseThrow(
+            () ->
+                new LibraryServiceException(
+                    String.format("'If-Match' does not contain a book ETag: %s", ifMatch)));
   }
 
   @Operation(
@@ -354,50 +829,127 @@ public class BookController {
 
   @Operation(
       summary = "Get all books with readers",
-      description = "Returns list of all books and their readers from the library")
+      description =
+          "Returns list of all books and their readers from the library. With 'scope=ALL'"
+              + " available books are included without a reader. The JSON response is"
+              + " cached until the next change in the catalog or for at most"
+              + " 'library.response-cache.max-staleness'. With 'Accept: application/x-ndjson'"
+              + " streams one book per line instead")
   @ApiResponse(
       responseCode = "200",
       description = "Successfully retrieved",
-      content =
-          @Content(
-              mediaType = "application/json",
-              examples =
-                  @ExampleObject(
-                      value =
-                          """
-                                          [
-                                           {
-                                           "id": 3,
-                                           "author": "Irvine Welsh",
-                                           "name": "Glue",
-                                           "reader":{
-                                           "id": 1,
-                                           "name": "Ivan"
-                                           }
-                                           },
-                                           {
-                                           "id": 2,
-                                           "author": "Tony Morrison",
-                                           "name": "Home",
-                                           "reader":{
-                                           "id": 2,
-                                           "name": "Yevhenii"
-                                           }
-                                           },
-                                           {
-                                           "id": 1,
-                                           "author": "George Orwell",
-                                           "name": "1984",
-                                           "reader":{
-                                           "id": 1,
-                                           "name": "Ivan"
-                                           }
-                                           }
-                                           ]
-                                          """)))
-  @GetMapping("/books/readers")
-  public ResponseEntity<List<BookWithReaderDto>> getBooksWithReaders() {
-    var booksWithReaders = libraryService.findAllBooksWithReaders();
-    return ResponseEntity.ok(booksWithReaders);
+      content = {
+        @Content(
+            mediaType = "application/json",
+            array = @ArraySchema(schema = @Schema(implementation = BookWithReaderDto.class)),
+            examples =
+                @ExampleObject(
+                    value =
+                        """
+                                        [
+                                         {
+                                         "id": 3,
+                                         "author": "Irvine Welsh",
+                                         "name": "Glue",
+                                         "reader":{
+                                         "id": 1,
+                                         "name": "Ivan"
+                                         }
+                                         },
+                                         {
+                                         "id": 2,
+                                         "author": "Tony Morrison",
+                                         "name": "Home",
+                                         "reader":{
+                                         "id": 2,
+                                         "name": "Yevhenii"
+                                         }
+                                         },
+                                         {
+                                         "id": 1,
+                                         "author": "George Orwell",
+                                         "name": "1984",
+                                         "reader":{
+                                         "id": 1,
+                                         "name": "Ivan"
+                                         }
+                                         }
+                                         ]
+                                        """)),
+        @Content(
+            mediaType = "application/x-ndjson",
+            examples =
+                @ExampleObject(
+                    value =
+                        """
+                          {"id":3,"author":"Irvine Welsh","name":"Glue","reader":{"id":1,"name":"Ivan"}}
+                          {"id":1,"author":"George Orwell","name":"1984","reader":{"id":1,"name":"Ivan"}}
+                        """))
+      })
+  @GetMapping(
+      value = "/books/readers",
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public ResponseEntity<byte[]> getBooksWithReaders(
+      @RequestParam(value = "scope", defaultValue = "BORROWED")
+          @Parameter(description = "Whether to include available books", example = "ALL")
+          AggregateScope scope,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) @Parameter(hidden = true)
+          String accept,
+      HttpServletResponse response)
+      throws IOException {
+    if (acceptsNdjson(accept)) {
+      response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+      writeBooksWithReaders(response.getOutputStream(), scope);
+      return null;
+    }
+    var booksWithReaders =
+        scope == AggregateScope.ALL
+            ? responseCache.get(
+                ALL_BOOKS_WITH_READERS_KEY, libraryService::findAllBooksWithOptionalReaders)
+            : responseCache.get(BOOKS_WITH_READERS_KEY, libraryService::findAllBooksWithReaders);
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(booksWithReaders);
+  }
+
+  private static String nextPageLink(Map<String, Object> cursor) {
+    var nextPage = ServletUriComponentsBuilder.fromCurrentRequest();
+    cursor.forEach(
+        (name, value) ->
+            nextPage.replaceQueryParam(
+                name, UriUtils.encodeQueryParam(String.valueOf(value), StandardCharsets.UTF_8)));
+    return String.format("<%s>; rel=\"next\"", nextPage.build(true).toUriString());
+  }
+
+  private static boolean acceptsNdjson(String accept) {
+    return accept != null
+        && MediaType.parseMediaTypes(accept).stream()
+            .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+  }
+
+  private void writeBooksWithReaders(OutputStream outputStream, AggregateScope scope)
+      throws IOException {
+    var writer =
+        objectMapper
+            .writerFor(BookWithReaderDto.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    try (var generator = objectMapper.getFactory().createGenerator(outputStream)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      generator.setRootValueSeparator(null);
+      Consumer<BookWithReaderDto> action =
+          book -> {
+            try {
+              writer.writeValue(generator, book);
+              generator.writeRaw('\n');
+            } catch (IOException ex) {
+              throw new UncheckedIOException(ex);
+            }
+          };
+      if (scope == AggregateScope.ALL) {
+        libraryService.forEachBookWithOptionalReader(action);
+      } else {
+        libraryService.forEachBookWithReader(action);
+      }
+    } catch (UncheckedIOException ex) {
+      throw ex.getCause();
+    }
   }
 }
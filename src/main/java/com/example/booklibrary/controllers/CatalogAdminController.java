@@ -0,0 +1,93 @@
+package com.example.booklibrary.controllers;
+
+import com.example.booklibrary.dto.IngestReportDto;
+import com.example.booklibrary.service.BookImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.io.InputStream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin")
+@RequiredArgsConstructor
+@Tag(name = "Catalog admin API", description = "Endpoints for bulk catalog maintenance")
+public class CatalogAdminController {
+  private static final String TEXT_CSV_VALUE = "text/csv";
+  private final BookImportService bookImportService;
+
+  @Operation(
+      summary = "Ingest books from CSV",
+      description =
+          "Streams 'name,author' rows into the library. Uses PostgreSQL COPY when available and"
+              + " batched inserts otherwise. Rows are not validated")
+  @ApiResponse(
+      responseCode = "200",
+      description = "Successfully ingested",
+      content =
+          @Content(
+              mediaType = "application/json",
+              examples =
+                  @ExampleObject(
+                      value =
+                          """
+                            {
+                            "rows": 100000,
+                            "millis": 412,
+                            "rowsPerSecond": 242718.44
+                            }
+                          """)))
+  @io.swagger.v3.oas.annotations.parameters.RequestBody(
+      description = "Books to ingest",
+      content =
+          @Content(
+              mediaType = TEXT_CSV_VALUE,
+              examples =
+                  @ExampleObject(
+                      value =
+                          """
+                            name,author
+                            "The Great Book","John Doe"
+                            "Martin Eden","Jack London"
+                          """)))
+  @PostMapping(value = "/books/ingest", consumes = TEXT_CSV_VALUE)
+  public ResponseEntity<IngestReportDto> ingestCsv(
+      @RequestParam(value = "header", defaultValue = "true")
+          @Parameter(description = "Whether the first line is a header to skip", example = "true")
+          boolean header,
+      InputStream books) {
+    return ResponseEntity.ok(bookImportService.ingestCsv(books, header));
+  }
+
+  @Operation(
+      summary = "Ingest books from NDJSON",
+      description =
+          "Streams books into the library. Uses PostgreSQL COPY when available and batched"
+              + " inserts otherwise. Books are not validated")
+  @ApiResponse(responseCode = "200", description = "Successfully ingested")
+  @io.swagger.v3.oas.annotations.parameters.RequestBody(
+      description = "Books to ingest",
+      content =
+          @Content(
+              mediaType = "application/x-ndjson",
+              examples =
+                  @ExampleObject(
+                      value =
+                          """
+                            {"name": "The Great Book", "author": "John Doe"}
+                            {"name": "Martin Eden", "author": "Jack London"}
+                          """)))
+  @PostMapping(value = "/books/ingest", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<IngestReportDto> ingestNdjson(InputStream books) {
+    return ResponseEntity.ok(bookImportService.ingestNdjson(books));
+  }
+}
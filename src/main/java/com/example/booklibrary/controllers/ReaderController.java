@@ -1,27 +1,36 @@
 package com.example.booklibrary.controllers;
 
+import com.example.booklibrary.cache.SerializedResponseCache;
+import com.example.booklibrary.dto.AggregateScope;
 import com.example.booklibrary.dto.BookDto;
 import com.example.booklibrary.dto.ReaderWithBooksDto;
 import com.example.booklibrary.entity.Book;
 import com.example.booklibrary.entity.Reader;
 import com.example.booklibrary.exception.SaveReaderException;
 import com.example.booklibrary.service.LibraryService;
+import com.example.booklibrary.util.ETagUtils;
+import com.example.booklibrary.util.HeaderUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import java.util.List;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @Validated
 @RestController
@@ -29,9 +38,20 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 @Tag(name = "Reader API", description = "Endpoints for operations about reader")
 public class ReaderController {
+  private static final String READERS_WITH_BOOKS_KEY = "readers-with-books";
+  private static final String ALL_READERS_WITH_BOOKS_KEY = "all-readers-with-books";
+  private static final int MAX_IDS = 1000;
   private final LibraryService libraryService;
+  private final SerializedResponseCache responseCache;
 
-  @Operation(summary = "Get all readers", description = "Returns all readers from the library")
+  @Operation(
+      summary = "Get all readers",
+      description =
+          "Returns all readers from the library with a weak 'ETag' of the catalog version."
+              + " Responds with 304 when 'If-None-Match' contains the current ETag. When 'ids' is"
+              + " given, returns these readers in the requested order and lists unknown IDs in"
+              + " the 'X-Missing-Ids' header")
+  @ApiResponse(responseCode = "304", description = "Catalog has not changed")
   @ApiResponse(
       responseCode = "200",
       description = "Successfully retrieved",
@@ -54,7 +74,23 @@ public class ReaderController {
                             ]
                             """)))
   @GetMapping("/readers")
-  public ResponseEntity<List<Reader>> getReaders() {
+  public ResponseEntity<List<Reader>> getReaders(
+      @RequestParam(value = "ids", required = false)
+          @Size(
+              max = MAX_IDS,
+              message = "Cannot request more than " + MAX_IDS + " readers by ids")
+          @Parameter(description = "Return only readers with these IDs", example = "2,1")
+          List<@Positive(message = "Reader ID must be a positive number") Long> ids,
+      WebRequest webRequest) {
+    if (webRequest.checkNotModified(ETagUtils.toWeakETag(libraryService.getCatalogVersion()))) {
+      return null;
+    }
+    if (ids != null) {
+      var lookup = libraryService.findReadersByIds(ids);
+      return ResponseEntity.ok()
+          .headers(HeaderUtils.missingIdsHeader(lookup.getMissingIds()))
+          .body(lookup.getFound());
+    }
     var readers = libraryService.findAllReader();
     return ResponseEntity.ok(readers);
   }
@@ -208,13 +244,18 @@ public class ReaderController {
 
   @Operation(
       summary = "Get all readers with borrowed books",
-      description = "Returns list of all readers and their borrowed books in the library")
+      description =
+          "Returns list of all readers and their borrowed books in the library. With"
+              + " 'scope=ALL' readers without borrowed books are included with an empty list. The"
+              + " response is cached until the next change in the catalog or for at most"
+              + " 'library.response-cache.max-staleness'")
   @ApiResponse(
       responseCode = "200",
       description = "Successfully retrieved",
       content =
           @Content(
               mediaType = "application/json",
+              array = @ArraySchema(schema = @Schema(implementation = ReaderWithBooksDto.class)),
               examples =
                   @ExampleObject(
                       value =
@@ -261,8 +302,17 @@ public class ReaderController {
                                            ]
                                           """)))
   @GetMapping("/readers/books")
-  public ResponseEntity<List<ReaderWithBooksDto>> getReadersWithBorrowedBooks() {
-    var readersWithBooks = libraryService.findAllReadersWithBooks();
-    return ResponseEntity.ok(readersWithBooks);
+  public ResponseEntity<byte[]> getReadersWithBorrowedBooks(
+      @RequestParam(value = "scope", defaultValue = "BORROWED")
+          @Parameter(
+              description = "Whether to include readers without borrowed books",
+              example = "ALL")
+          AggregateScope scope) {
+    var readersWithBooks =
+        scope == AggregateScope.ALL
+            ? responseCache.get(
+                ALL_READERS_WITH_BOOKS_KEY, libraryService::findAllReadersWithOptionalBooks)
+            : responseCache.get(READERS_WITH_BOOKS_KEY, libraryService::findAllReadersWithBooks);
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(readersWithBooks);
   }
 }
@@ -1,25 +1,58 @@
 package com.example.booklibrary.dao;
 
 import com.example.booklibrary.dto.BookDto;
+import com.example.booklibrary.dto.BookQueryDto;
+import com.example.booklibrary.dto.BookSearchResultDto;
+import com.example.booklibrary.dto.CirculationRequestDto;
 import com.example.booklibrary.entity.Book;
 import com.example.booklibrary.entity.Reader;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 public interface BookDao {
   Book save(Book bookToSave);
 
+  List<Book> saveAll(List<Book> booksToSave);
+
+  long copyFromCsv(java.io.Reader csvBooks);
+
   void returnBook(long bookId);
 
+  CirculationStatus tryReturn(long bookId);
+
+  CirculationStatus tryReturn(long bookId, long version);
+
   Optional<Book> findById(long id);
 
   List<BookDto> findAll();
 
+  List<BookDto> findAllByIds(Collection<Long> bookIds);
+
+  List<BookDto> findAllAfter(long afterId, int limit);
+
+  List<BookDto> findAllMatching(BookQueryDto bookQuery);
+
+  List<BookSearchResultDto> search(String query, int afterRank, long afterId, int limit);
+
   void borrow(long bookId, long readerId);
 
+  CirculationStatus tryBorrow(long bookId, long readerId);
+
+  CirculationStatus tryBorrow(long bookId, long readerId, long version);
+
+  List<CirculationStatus> circulateAll(List<CirculationRequestDto> operations);
+
   List<BookDto> findAllByReaderId(long readerId);
 
   Map<Book, Reader> findAllWithReaders();
+
+  Map<Book, Reader> findAllWithOptionalReaders();
+
+  void forEachWithReader(BiConsumer<Book, Reader> action);
+
+  void forEachWithOptionalReader(BiConsumer<Book, Reader> action);
 }
@@ -1,26 +1,76 @@
 package com.example.booklibrary.dao;
 
+import com.example.booklibrary.config.CachingConfig;
+import com.example.booklibrary.dao.index.BorrowIndex;
+import com.example.booklibrary.dao.index.SearchIndex;
 import com.example.booklibrary.dto.BookDto;
+import com.example.booklibrary.dto.BookQueryDto;
+import com.example.booklibrary.dto.BookSearchResultDto;
+import com.example.booklibrary.dto.CirculationOperation;
+import com.example.booklibrary.dto.CirculationRequestDto;
 import com.example.booklibrary.entity.Book;
 import com.example.booklibrary.entity.Reader;
 import com.example.booklibrary.exception.DaoOperationException;
+import com.example.booklibrary.util.CsvUtils;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
 import java.util.*;
+import java.util.function.BiConsumer;
 
 import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
+@CacheConfig(cacheNames = CachingConfig.BOOKS_CACHE)
 @RequiredArgsConstructor
 public class BookDaoImpl implements BookDao {
+  private static final int COPY_FALLBACK_BATCH_SIZE = 1000;
+  private static final int STREAM_FETCH_SIZE = 256;
+  private static final int CIRCULATION_BATCH_SIZE = 500;
   private final JdbcTemplate jdbcTemplate;
+  private BorrowIndex borrowIndex;
+  private SearchIndex searchIndex;
+  private Cache booksCache;
+
+  @Autowired(required = false)
+  public void setBorrowIndex(BorrowIndex borrowIndex) {
+    this.borrowIndex = borrowIndex;
+  }
+
+  @Autowired(required = false)
+  public void setSearchIndex(SearchIndex searchIndex) {
+    this.searchIndex = searchIndex;
+  }
+
+  @Autowired(required = false)
+  public void setCacheManager(CacheManager cacheManager) {
+    this.booksCache = cacheManager.getCache(CachingConfig.BOOKS_CACHE);
+  }
 
   @Override
+  @CacheEvict(key = "#result.id")
   public Book save(Book bookToSave) {
     var query = "INSERT INTO book(name, author) VALUES(?, ?)";
     KeyHolder keyHolder = new GeneratedKeyHolder();
@@ -37,6 +87,10 @@ public class BookDaoImpl implements BookDao {
       if (keyHolder.getKey() != null) {
         bookToSave.setId(keyHolder.getKey().longValue());
       }
+      bookToSave.setVersion(0L);
+      if (searchIndex != null) {
+        DaoUtils.runAfterCommit(() -> searchIndex.onSave(bookToSave));
+      }
       return bookToSave;
     } catch (DataAccessException ex) {
       throw new DaoOperationException(String.format("Error saving book: %s", bookToSave), ex);
@@ -48,10 +102,101 @@ public class BookDaoImpl implements BookDao {
   }
 
   @Override
+  @CacheEvict(allEntries = true)
+  @Transactional
+  public List<Book> saveAll(List<Book> booksToSave) {
+    var query = "INSERT INTO book(name, author) VALUES(?, ?)";
+    KeyHolder keyHolder = new GeneratedKeyHolder();
+    try {
+      jdbcTemplate.batchUpdate(
+          con -> con.prepareStatement(query, new String[] {"id"}),
+          new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement preparedStatement, int i) throws SQLException {
+              preparedStatement.setString(1, booksToSave.get(i).getName());
+              preparedStatement.setString(2, booksToSave.get(i).getAuthor());
+            }
+
+            @Override
+            public int getBatchSize() {
+              return booksToSave.size();
+            }
+          },
+          keyHolder);
+      var keys = keyHolder.getKeyList();
+      for (int i = 0; i < keys.size(); i++) {
+        booksToSave.get(i).setId(((Number) keys.get(i).get("id")).longValue());
+      }
+      if (searchIndex != null) {
+        DaoUtils.runAfterCommit(() -> booksToSave.forEach(searchIndex::onSave));
+      }
+      return booksToSave;
+    } catch (DataAccessException ex) {
+      throw new DaoOperationException(
+          String.format("Error saving batch of %d books", booksToSave.size()), ex);
+    }
+  }
+
+  @Override
+  @CacheEvict(allEntries = true)
+  @Transactional
+  public long copyFromCsv(java.io.Reader csvBooks) {
+    try {
+      long rows =
+          jdbcTemplate.execute(
+              (ConnectionCallback<Long>)
+                  con ->
+                      con.isWrapperFor(PGConnection.class)
+                          ? copyIn(con.unwrap(PGConnection.class), csvBooks)
+                          : insertInBatches(con, csvBooks));
+      if (searchIndex != null) {
+        DaoUtils.runAfterCommit(searchIndex::catchUp);
+      }
+      return rows;
+    } catch (DataAccessException ex) {
+      throw new DaoOperationException("Error copying books into the library", ex);
+    }
+  }
+
+  private long copyIn(PGConnection connection, java.io.Reader csvBooks) throws SQLException {
+    var query = "COPY book(name, author) FROM STDIN WITH (FORMAT csv)";
+    try {
+      return connection.getCopyAPI().copyIn(query, csvBooks);
+    } catch (IOException ex) {
+      throw new SQLException("Cannot read books to copy", ex);
+    }
+  }
+
+  private long insertInBatches(Connection connection, java.io.Reader csvBooks) throws SQLException {
+    var query = "INSERT INTO book(name, author) VALUES(?, ?)";
+    var rows = 0L;
+    try (var preparedStatement = connection.prepareStatement(query);
+        var lines = new BufferedReader(csvBooks)) {
+      String line;
+      while ((line = lines.readLine()) != null) {
+        var fields = CsvUtils.parseRow(line);
+        preparedStatement.setString(1, fields.get(0));
+        preparedStatement.setString(2, fields.size() > 1 ? fields.get(1) : null);
+        preparedStatement.addBatch();
+        if (++rows % COPY_FALLBACK_BATCH_SIZE == 0) {
+          preparedStatement.executeBatch();
+        }
+      }
+      if (rows % COPY_FALLBACK_BATCH_SIZE != 0) {
+        preparedStatement.executeBatch();
+      }
+      return rows;
+    } catch (IOException ex) {
+      throw new SQLException("Cannot read books to copy", ex);
+    }
+  }
+
+  @Override
+  @CacheEvict(key = "#bookId")
   public void returnBook(long bookId) {
-    var query = "UPDATE book SET reader_id = null WHERE id = ?";
+    var query = "UPDATE book SET reader_id = null, version = version + 1 WHERE id = ?";
     try {
-      jdbcTemplate.update(query, bookId);
+      updateLoan(null, query, bookId);
     } catch (DataAccessException ex) {
       throw new DaoOperationException(
           String.format("Error returning book with id: %d", bookId), ex);
@@ -59,12 +204,62 @@ public class BookDaoImpl implements BookDao {
   }
 
   @Override
+  @CacheEvict(key = "#bookId")
+  public CirculationStatus tryReturn(long bookId) {
+    var query =
+        """
+                UPDATE book SET reader_id = null, version = version + 1
+                  WHERE id = ? AND reader_id IS NOT NULL
+                """;
+    try {
+      if (updateLoan(null, query, bookId) == 1) {
+        return CirculationStatus.SUCCESS;
+      }
+      return findReturnRejectionReason(bookId, null);
+    } catch (DataAccessException ex) {
+      throw new DaoOperationException(
+          String.format("Error returning book with id: %d", bookId), ex);
+    }
+  }
+
+  @Override
+  @CacheEvict(key = "#bookId")
+  public CirculationStatus tryReturn(long bookId, long version) {
+    var query =
+        """
+                UPDATE book SET reader_id = null, version = version + 1
+                  WHERE id = ? AND reader_id IS NOT NULL AND version = ?
+                """;
+    try {
+      if (updateLoan(null, query, bookId, version) == 1) {
+        return CirculationStatus.SUCCESS;
+      }
+      return findReturnRejectionReason(bookId, version);
+    } catch (DataAccessException ex) {
+      throw new DaoOperationException(
+          String.format("Error returning book with id: %d and version: %d", bookId, version),
+          ex);
+    }
+  }
+
+  private CirculationStatus findReturnRejectionReason(long bookId, Long expectedVersion) {
+    var query = "SELECT version FROM book WHERE id = ?";
+    List<Long> versions = jdbcTemplate.queryForList(query, Long.class, bookId);
+    if (versions.isEmpty()) {
+      return CirculationStatus.BOOK_NOT_FOUND;
+    }
+    return expectedVersion != null && !expectedVersion.equals(versions.get(0))
+        ? CirculationStatus.VERSION_MISMATCH
+        : CirculationStatus.BOOK_NOT_BORROWED;
+  }
+
+  @Override
+  @Cacheable(unless = "#result == null")
   public Optional<Book> findById(long bookId) {
-    var query = "SELECT id, name, author, reader_id FROM book WHERE id = ?";
+    var query = "SELECT id, name, author, reader_id, version FROM book WHERE id = ?";
     try {
-      //noinspection DataFlowIssue
       return Optional.of(
-          jdbcTemplate.queryForObject(query, new BeanPropertyRowMapper<>(Book.class), bookId));
+          jdbcTemplate.queryForObject(query, DaoUtils.getBookRowMapper(), bookId));
     } catch (EmptyResultDataAccessException ex) {
       return Optional.empty();
     } catch (DataAccessException ex) {
@@ -77,17 +272,151 @@ public class BookDaoImpl implements BookDao {
   public List<BookDto> findAll() {
     var query = "SELECT id, name, author FROM book";
     try {
-      return jdbcTemplate.query(query, new BeanPropertyRowMapper<>(BookDto.class));
+      return jdbcTemplate.query(query, DaoUtils.getBookDtoRowMapper());
     } catch (DataAccessException ex) {
       throw new DaoOperationException("Error finding all books", ex);
     }
   }
 
   @Override
+  public List<BookDto> findAllByIds(Collection<Long> bookIds) {
+    if (bookIds.isEmpty()) {
+      return List.of();
+    }
+    var query = "SELECT id, name, author FROM book WHERE id = ANY(?)";
+    try {
+      return jdbcTemplate.query(
+          query, DaoUtils.getIdArraySetter(bookIds), DaoUtils.getBookDtoRowMapper());
+    } catch (DataAccessException ex) {
+      throw new DaoOperationException(
+          String.format("Error finding %d books by ids", bookIds.size()), ex);
+    }
+  }
+
+  @Override
+  public List<BookDto> findAllAfter(long afterId, int limit) {
+    var query = "SELECT id, name, author FROM book WHERE id > ? ORDER BY id LIMIT ?";
+    try {
+      return jdbcTemplate.query(query, DaoUtils.getBookDtoRowMapper(), afterId, limit);
+    } catch (DataAccessException ex) {
+      throw new DaoOperationException(
+          String.format("Error finding books after id: %d", afterId), ex);
+    }
+  }
+
+  @Override
+  public List<BookDto> findAllMatching(BookQueryDto bookQuery) {
+    List<String> conditions = new ArrayList<>();
+    List<Object> args = new ArrayList<>();
+    if (bookQuery.getAvailable() != null) {
+      conditions.add(bookQuery.getAvailable() ? "reader_id IS NULL" : "reader_id IS NOT NULL");
+    }
+    if (bookQuery.getAuthor() != null) {
+      conditions.add("author = ?");
+      args.add(bookQuery.getAuthor());
+    }
+    if (bookQuery.getReaderId() != null) {
+      conditions.add("reader_id = ?");
+      args.add(bookQuery.getReaderId());
+    }
+    var sortColumn =
+        switch (bookQuery.getSort()) {
+          case ID -> null;
+          case NAME -> "name";
+          case AUTHOR -> "author";
+        };
+    if (sortColumn == null) {
+      conditions.add("id > ?");
+      args.add(bookQuery.getAfterId());
+    } else if (bookQuery.getAfterValue() != null) {
+      conditions.add(String.format("(%s, id) > (?, ?)", sortColumn));
+      args.add(bookQuery.getAfterValue());
+      args.add(bookQuery.getAfterId());
+    }
+    args.add(bookQuery.getLimit());
+    var query =
+        String.format(
+            "SELECT id, name, author FROM book WHERE %s ORDER BY %s LIMIT ?",
+            conditions.isEmpty() ? "TRUE" : String.join(" AND ", conditions),
+            sortColumn == null ? "id" : sortColumn + ", id");
+    try {
+      return jdbcTemplate.query(query, DaoUtils.getBookDtoRowMapper(), args.toArray());
+    } catch (DataAccessException ex) {
+      throw new DaoOperationException(
+          String.format("Error finding books by query: %s", conditions), ex);
+    }
+  }
+
+  @Override
+  public List<BookSearchResultDto> search(String query, int afterRank, long afterId, int limit) {
+    if (searchIndex != null) {
+      return searchIndex.search(query, afterRank, afterId, limit);
+    }
+    var searchQuery =
+        """
+                SELECT id, name, author, match_rank FROM (
+                  SELECT id, name, author,
+                    CASE WHEN lower(name) = lower(?) THEN 0
+                      WHEN name ILIKE ? THEN 1
+                      WHEN author ILIKE ? THEN 2
+                      ELSE 3 END AS match_rank
+                  FROM book
+                  WHERE name ILIKE ? OR author ILIKE ?
+                ) ranked
+                WHERE match_rank > ? OR (match_rank = ? AND id > ?)
+                ORDER BY match_rank, id
+                LIMIT ?
+                """;
+    var escaped = DaoUtils.escapeLikePattern(query);
+    var prefix = escaped + "%";
+    var contains = "%" + escaped + "%";
+    try {
+      return jdbcTemplate.query(
+          searchQuery,
+          DaoUtils.getBookSearchResultRowMapper(),
+          query,
+          prefix,
+          prefix,
+          contains,
+          contains,
+          afterRank,
+          afterRank,
+          afterId,
+          limit);
+    } catch (DataAccessException ex) {
+      throw new DaoOperationException(
+          String.format("Error searching books by query: %s", query), ex);
+    }
+  }
+
+  @Override
+  @CacheEvict(key = "#bookId")
   public void borrow(long bookId, long readerId) {
-    var query = "UPDATE book SET reader_id = ? WHERE id = ?";
+    var query = "UPDATE book SET reader_id = ?, version = version + 1 WHERE id = ?";
+    try {
+      updateLoan(readerId, query, readerId, bookId);
+    } catch (DataAccessException ex) {
+      throw new DaoOperationException(
+          String.format("Error borrowing book with id: %d for reader id: %d", bookId, readerId),
+          ex);
+    }
+  }
+
+  @Override
+  @CacheEvict(key = "#bookId")
+  public CirculationStatus tryBorrow(long bookId, long readerId) {
+    var query =
+        """
+                UPDATE book SET reader_id = ?, version = version + 1
+                  WHERE id = ? AND reader_id IS NULL
+                """;
     try {
-      jdbcTemplate.update(query, readerId, bookId);
+      if (updateLoan(readerId, query, readerId, bookId) == 1) {
+        return CirculationStatus.SUCCESS;
+      }
+      return findBorrowRejectionReason(bookId, readerId, null);
+    } catch (DataIntegrityViolationException ex) {
+      return CirculationStatus.READER_NOT_FOUND;
     } catch (DataAccessException ex) {
       throw new DaoOperationException(
           String.format("Error borrowing book with id: %d for reader id: %d", bookId, readerId),
@@ -95,8 +424,219 @@ public class BookDaoImpl implements BookDao {
     }
   }
 
+  @Override
+  @CacheEvict(key = "#bookId")
+  public CirculationStatus tryBorrow(long bookId, long readerId, long version) {
+    var query =
+        """
+                UPDATE book SET reader_id = ?, version = version + 1
+                  WHERE id = ? AND reader_id IS NULL AND version = ?
+                """;
+    try {
+      if (updateLoan(readerId, query, readerId, bookId, version) == 1) {
+        return CirculationStatus.SUCCESS;
+      }
+      return findBorrowRejectionReason(bookId, readerId, version);
+    } catch (DataIntegrityViolationException ex) {
+      return CirculationStatus.READER_NOT_FOUND;
+    } catch (DataAccessException ex) {
+      throw new DaoOperationException(
+          String.format(
+              "Error borrowing book with id: %d and version: %d for reader id: %d",
+              bookId, version, readerId),
+          ex);
+    }
+  }
+
+  @Override
+  @Transactional
+  public List<CirculationStatus> circulateAll(List<CirculationRequestDto> operations) {
+    try {
+      var books = lockBooks(operations);
+      var readerIds = findExistingReaderIds(operations);
+      List<CirculationStatus> statuses = new ArrayList<>(operations.size());
+      List<CirculationRequestDto> applied = new ArrayList<>(operations.size());
+      List<Runnable> indexUpdates = new ArrayList<>();
+      for (var operation : operations) {
+        var status = circulate(operation, books, readerIds);
+        statuses.add(status);
+        if (status == CirculationStatus.SUCCESS) {
+          applied.add(operation);
+          if (borrowIndex != null) {
+            indexUpdates.add(indexUpdate(books.get(operation.getBookId())));
+          }
+        }
+      }
+      if (applied.isEmpty()) {
+        return statuses;
+      }
+      var query = "UPDATE book SET reader_id = ?, version = version + 1 WHERE id = ?";
+      jdbcTemplate.batchUpdate(
+          query,
+          applied,
+          CIRCULATION_BATCH_SIZE,
+          (preparedStatement, operation) -> {
+            preparedStatement.setObject(1, circulatedReaderId(operation), Types.BIGINT);
+            preparedStatement.setLong(2, operation.getBookId());
+          });
+      if (!indexUpdates.isEmpty()) {
+        DaoUtils.runAfterCommit(() -> indexUpdates.forEach(Runnable::run));
+      }
+      if (booksCache != null) {
+        var circulatedIds =
+            applied.stream().map(CirculationRequestDto::getBookId).distinct().toList();
+        DaoUtils.runAfterCommit(() -> circulatedIds.forEach(booksCache::evict));
+      }
+      return statuses;
+    } catch (DataAccessException ex) {
+      throw new DaoOperationException(
+          String.format("Error applying batch of %d circulation operations", operations.size()),
+          ex);
+    }
+  }
+
+  private Map<Long, Book> lockBooks(List<CirculationRequestDto> operations) {
+    var query =
+        """
+                SELECT id, name, author, reader_id, version FROM book
+                  WHERE id = ANY(?)
+                  ORDER BY id
+                  FOR UPDATE
+                """;
+    var bookIds = operations.stream().map(CirculationRequestDto::getBookId).distinct().toList();
+    Map<Long, Book> books = new HashMap<>(bookIds.size() * 4 / 3 + 1);
+    if (!bookIds.isEmpty()) {
+      jdbcTemplate
+          .query(query, DaoUtils.getIdArraySetter(bookIds), DaoUtils.getBookRowMapper())
+          .forEach(book -> books.put(book.getId(), book));
+    }
+    return books;
+  }
+
+  private Set<Long> findExistingReaderIds(List<CirculationRequestDto> operations) {
+    var query = "SELECT id FROM reader WHERE id = ANY(?)";
+    var readerIds =
+        operations.stream()
+            .filter(operation -> operation.getOperation() == CirculationOperation.BORROW)
+            .map(CirculationRequestDto::getReaderId)
+            .filter(Objects::nonNull)
+            .distinct()
+            .toList();
+    Set<Long> existingReaderIds = new HashSet<>(readerIds.size() * 4 / 3 + 1);
+    if (!readerIds.isEmpty()) {
+      jdbcTemplate.query(
+          query,
+          DaoUtils.getIdArraySetter(readerIds),
+          (RowCallbackHandler) rs -> existingReaderIds.add(rs.getLong(1)));
+    }
+    return existingReaderIds;
+  }
+
+  private static CirculationStatus circulate(
+      CirculationRequestDto operation, Map<Long, Book> books, Set<Long> readerIds) {
+    var book = books.get(operation.getBookId());
+    if (book == null) {
+      return CirculationStatus.BOOK_NOT_FOUND;
+    }
+    if (operation.getOperation() == CirculationOperation.RETURN) {
+      if (book.getReaderId() == null) {
+        return CirculationStatus.BOOK_NOT_BORROWED;
+      }
+      book.setReaderId(null);
+      book.setVersion(book.getVersion() + 1);
+      return CirculationStatus.SUCCESS;
+    }
+    if (operation.getReaderId() == null || !readerIds.contains(operation.getReaderId())) {
+      return CirculationStatus.READER_NOT_FOUND;
+    }
+    if (book.getReaderId() != null) {
+      return CirculationStatus.BOOK_ALREADY_BORROWED;
+    }
+    book.setReaderId(operation.getReaderId());
+    book.setVersion(book.getVersion() + 1);
+    return CirculationStatus.SUCCESS;
+  }
+
+  private Runnable indexUpdate(Book book) {
+    var borrowedBook = new BookDto(book.getId(), book.getName(), book.getAuthor());
+    var readerId = book.getReaderId();
+    long version = book.getVersion();
+    return readerId == null
+        ? () -> borrowIndex.onReturn(borrowedBook.getId(), version)
+        : () -> borrowIndex.onBorrow(borrowedBook, readerId, version);
+  }
+
+  /**
+   * Runs a borrow or return update. With the borrow index enabled the updated row is read back
+   * through generated keys (UPDATE ... RETURNING on PostgreSQL) and handed to the index once the
+   * surrounding transaction commits.
+   */
+  private int updateLoan(Long readerId, String query, Object... args) {
+    if (borrowIndex == null) {
+      return jdbcTemplate.update(query, args);
+    }
+    KeyHolder keyHolder = new GeneratedKeyHolder();
+    int updated =
+        jdbcTemplate.update(
+            con -> {
+              var preparedStatement =
+                  con.prepareStatement(query, new String[] {"id", "name", "author", "version"});
+              new ArgumentPreparedStatementSetter(args).setValues(preparedStatement);
+              return preparedStatement;
+            },
+            keyHolder);
+    if (updated == 1) {
+      var keys = keyHolder.getKeys();
+      DaoUtils.runAfterCommit(
+          indexUpdate(
+              Book.builder()
+                  .id(((Number) keys.get("id")).longValue())
+                  .name((String) keys.get("name"))
+                  .author((String) keys.get("author"))
+                  .readerId(readerId)
+                  .version(((Number) keys.get("version")).longValue())
+                  .build()));
+    }
+    return updated;
+  }
+
+  private static Long circulatedReaderId(CirculationRequestDto operation) {
+    return operation.getOperation() == CirculationOperation.BORROW
+        ? operation.getReaderId()
+        : null;
+  }
+
+  private CirculationStatus findBorrowRejectionReason(
+      long bookId, long readerId, Long expectedVersion) {
+    var query =
+        """
+                SELECT
+                  book.version,
+                  EXISTS (SELECT 1 FROM reader WHERE reader.id = ?) AS readerExists
+                FROM book
+                  WHERE book.id = ?
+                """;
+    List<CirculationStatus> reasons =
+        jdbcTemplate.query(
+            query,
+            (rs, rowNum) -> {
+              if (expectedVersion != null && expectedVersion != rs.getLong("version")) {
+                return CirculationStatus.VERSION_MISMATCH;
+              }
+              return rs.getBoolean("readerExists")
+                  ? CirculationStatus.BOOK_ALREADY_BORROWED
+                  : CirculationStatus.READER_NOT_FOUND;
+            },
+            readerId,
+            bookId);
+    return reasons.isEmpty() ? CirculationStatus.BOOK_NOT_FOUND : reasons.get(0);
+  }
+
   @Override
   public List<BookDto> findAllByReaderId(long readerId) {
+    if (borrowIndex != null && borrowIndex.isCurrent()) {
+      return borrowIndex.findAllByReaderId(readerId);
+    }
     var query =
         """
                 SELECT id,
@@ -106,7 +646,7 @@ public class BookDaoImpl implements BookDao {
                   WHERE reader_id = ?
                 """;
     try {
-      return jdbcTemplate.query(query, new BeanPropertyRowMapper<>(BookDto.class), readerId);
+      return jdbcTemplate.query(query, DaoUtils.getBookDtoRowMapper(), readerId);
     } catch (DataAccessException ex) {
       throw new DaoOperationException(
           String.format("Error finding all books by reader id: %d", readerId), ex);
@@ -115,6 +655,9 @@ public class BookDaoImpl implements BookDao {
 
   @Override
   public Map<Book, Reader> findAllWithReaders() {
+    if (borrowIndex != null && borrowIndex.isCurrent()) {
+      return borrowIndex.findAllWithReaders();
+    }
     var query =
         """
                 SELECT
@@ -133,4 +676,85 @@ public class BookDaoImpl implements BookDao {
       throw new DaoOperationException("Error finding books with their readers!");
     }
   }
+
+  @Override
+  public Map<Book, Reader> findAllWithOptionalReaders() {
+    var query =
+        """
+                SELECT
+                  book.id AS bookId,
+                  book.name AS bookName,
+                  book.author AS bookAuthor,
+                  reader.id AS readerId,
+                  reader.name AS readerName
+                FROM book
+                  LEFT JOIN reader ON book.reader_id = reader.id
+                ORDER BY book.id
+                """;
+    try {
+      return jdbcTemplate.query(query, DaoUtils.getBookOptionalReaderExtractor());
+    } catch (DataAccessException ex) {
+      throw new DaoOperationException("Error finding all books with their readers!", ex);
+    }
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public void forEachWithReader(BiConsumer<Book, Reader> action) {
+    if (borrowIndex != null && borrowIndex.isCurrent()) {
+      borrowIndex.forEachWithReader(action);
+      return;
+    }
+    var query =
+        """
+                SELECT
+                  book.id AS bookId,
+                  book.name AS bookName,
+                  book.author AS bookAuthor,
+                  book.reader_id,
+                  reader.id AS readerId,
+                  reader.name AS readerName
+                FROM book
+                  INNER JOIN reader ON book.reader_id = reader.id
+                """;
+    try {
+      jdbcTemplate.query(
+          con -> {
+            var preparedStatement = con.prepareStatement(query);
+            preparedStatement.setFetchSize(STREAM_FETCH_SIZE);
+            return preparedStatement;
+          },
+          DaoUtils.getBookReaderHandler(action));
+    } catch (DataAccessException ex) {
+      throw new DaoOperationException("Error streaming books with their readers!", ex);
+    }
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public void forEachWithOptionalReader(BiConsumer<Book, Reader> action) {
+    var query =
+        """
+                SELECT
+                  book.id AS bookId,
+                  book.name AS bookName,
+                  book.author AS bookAuthor,
+                  reader.id AS readerId,
+                  reader.name AS readerName
+                FROM book
+                  LEFT JOIN reader ON book.reader_id = reader.id
+                ORDER BY book.id
+                """;
+    try {
+      jdbcTemplate.query(
+          con -> {
+            var preparedStatement = con.prepareStatement(query);
+            preparedStatement.setFetchSize(STREAM_FETCH_SIZE);
+            return preparedStatement;
+          },
+          DaoUtils.getBookOptionalReaderHandler(action));
+    } catch (DataAccessException ex) {
+      throw new DaoOperationException("Error streaming all books with their readers!", ex);
+    }
+  }
 }
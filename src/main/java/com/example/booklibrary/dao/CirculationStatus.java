@@ -0,0 +1,10 @@
+package com.example.booklibrary.dao;
+
+public enum CirculationStatus {
+  SUCCESS,
+  BOOK_NOT_FOUND,
+  READER_NOT_FOUND,
+  BOOK_ALREADY_BORROWED,
+  BOOK_NOT_BORROWED,
+  VERSION_MISMATCH
+}
@@ -1,15 +1,78 @@
 package com.example.booklibrary.dao;
 
 import com.example.booklibrary.dto.BookDto;
+import com.example.booklibrary.dto.BookSearchResultDto;
 import com.example.booklibrary.entity.Book;
 import com.example.booklibrary.entity.Reader;
 import com.example.booklibrary.exception.DaoOperationException;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.function.BiConsumer;
+import org.springframework.jdbc.core.PreparedStatementSetter;
 import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 public class DaoUtils {
+  private static final RowMapper<Book> BOOK_ROW_MAPPER =
+      (rs, rowNum) ->
+          new Book(
+              rs.getLong(1),
+              rs.getString(2),
+              rs.getString(3),
+              rs.getObject(4, Long.class),
+              rs.getLong(5));
+  private static final RowMapper<BookDto> BOOK_DTO_ROW_MAPPER =
+      (rs, rowNum) -> new BookDto(rs.getLong(1), rs.getString(2), rs.getString(3));
+  private static final RowMapper<BookSearchResultDto> BOOK_SEARCH_RESULT_ROW_MAPPER =
+      (rs, rowNum) ->
+          new BookSearchResultDto(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getInt(4));
+  private static final RowMapper<Reader> READER_ROW_MAPPER =
+      (rs, rowNum) -> new Reader(rs.getLong(1), rs.getString(2));
+
+  public static RowMapper<Book> getBookRowMapper() {
+    return BOOK_ROW_MAPPER;
+  }
+
+  public static RowMapper<BookDto> getBookDtoRowMapper() {
+    return BOOK_DTO_ROW_MAPPER;
+  }
+
+  public static RowMapper<BookSearchResultDto> getBookSearchResultRowMapper() {
+    return BOOK_SEARCH_RESULT_ROW_MAPPER;
+  }
+
+  public static RowMapper<Reader> getReaderRowMapper() {
+    return READER_ROW_MAPPER;
+  }
+
+  public static String escapeLikePattern(String value) {
+    return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+
+  public static void runAfterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            action.run();
+          }
+        });
+  }
+
+  public static PreparedStatementSetter getIdArraySetter(Collection<Long> ids) {
+    return preparedStatement ->
+        preparedStatement.setArray(
+            1, preparedStatement.getConnection().createArrayOf("BIGINT", ids.toArray()));
+  }
+
   public static ResultSetExtractor<Map<Book, Reader>> getBookReaderExtractor() {
     return rs -> {
       Map<Book, Reader> map = new HashMap<>();
@@ -23,6 +86,26 @@ public class DaoUtils {
     };
   }
 
+  public static RowCallbackHandler getBookReaderHandler(BiConsumer<Book, Reader> action) {
+    return rs -> action.accept(mapResultSetToBook(rs), mapResultSetToReader(rs));
+  }
+
+  public static ResultSetExtractor<Map<Book, Reader>> getBookOptionalReaderExtractor() {
+    return rs -> {
+      Map<Book, Reader> map = new LinkedHashMap<>();
+
+      while (rs.next()) {
+        map.put(mapResultSetToBook(rs), mapResultSetToOptionalReader(rs));
+      }
+      return map;
+    };
+  }
+
+  public static RowCallbackHandler getBookOptionalReaderHandler(
+      BiConsumer<Book, Reader> action) {
+    return rs -> action.accept(mapResultSetToBook(rs), mapResultSetToOptionalReader(rs));
+  }
+
   public static ResultSetExtractor<Map<Reader, List<BookDto>>> getReaderBooksExtractor() {
     return rs -> {
       Map<Reader, List<BookDto>> map = new HashMap<>();
@@ -37,6 +120,37 @@ public class DaoUtils {
     };
   }
 
+  public static ResultSetExtractor<Map<Reader, List<BookDto>>> getOrderedReaderBooksExtractor() {
+    return rs -> {
+      Map<Reader, List<BookDto>> map = new LinkedHashMap<>();
+      if (!rs.next()) {
+        return map;
+      }
+      var readerIdColumn = rs.findColumn("readerId");
+      var readerNameColumn = rs.findColumn("readerName");
+      var bookIdColumn = rs.findColumn("bookId");
+      var bookNameColumn = rs.findColumn("bookName");
+      var bookAuthorColumn = rs.findColumn("bookAuthor");
+      var bookCountColumn = rs.findColumn("bookCount");
+      var currentReaderId = 0L;
+      List<BookDto> borrowedBooks = null;
+      do {
+        var readerId = rs.getLong(readerIdColumn);
+        if (borrowedBooks == null || readerId != currentReaderId) {
+          currentReaderId = readerId;
+          borrowedBooks = new ArrayList<>(rs.getInt(bookCountColumn));
+          map.put(new Reader(readerId, rs.getString(readerNameColumn)), borrowedBooks);
+        }
+        var bookId = rs.getLong(bookIdColumn);
+        if (!rs.wasNull()) {
+          borrowedBooks.add(
+              new BookDto(bookId, rs.getString(bookNameColumn), rs.getString(bookAuthorColumn)));
+        }
+      } while (rs.next());
+      return map;
+    };
+  }
+
   private static Reader mapResultSetToReader(ResultSet resultSet) {
     try {
       var reader = new Reader();
@@ -48,6 +162,14 @@ public class DaoUtils {
     }
   }
 
+  private static Reader mapResultSetToOptionalReader(ResultSet resultSet) {
+    try {
+      return resultSet.getObject("readerId") == null ? null : mapResultSetToReader(resultSet);
+    } catch (SQLException e) {
+      throw new DaoOperationException("Cannot parse row to create reader instance", e);
+    }
+  }
+
   private static Book mapResultSetToBook(ResultSet resultSet) {
     try {
       var book = new Book();
@@ -4,6 +4,7 @@ import com.example.booklibrary.dto.BookDto;
 import com.example.booklibrary.entity.Book;
 import com.example.booklibrary.entity.Reader;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -15,7 +16,11 @@ public interface ReaderDao {
 
   List<Reader> findAll();
 
+  List<Reader> findAllByIds(Collection<Long> readerIds);
+
   Optional<Reader> findReaderByBookId(Long bookId);
 
   Map<Reader, List<BookDto>> findAllWithBooks();
+
+  Map<Reader, List<BookDto>> findAllWithOptionalBooks();
 }
@@ -1,5 +1,7 @@
 package com.example.booklibrary.dao;
 
+import com.example.booklibrary.config.CachingConfig;
+import com.example.booklibrary.dao.index.BorrowIndex;
 import com.example.booklibrary.dto.BookDto;
 import com.example.booklibrary.entity.Book;
 import com.example.booklibrary.entity.Reader;
@@ -7,20 +9,31 @@ import com.example.booklibrary.exception.DaoOperationException;
 import java.util.*;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
 @Repository
+@CacheConfig(cacheNames = CachingConfig.READERS_CACHE)
 @RequiredArgsConstructor
 public class ReaderDaoImpl implements ReaderDao {
   private final JdbcTemplate jdbcTemplate;
+  private BorrowIndex borrowIndex;
+
+  @Autowired(required = false)
+  public void setBorrowIndex(BorrowIndex borrowIndex) {
+    this.borrowIndex = borrowIndex;
+  }
 
   @Override
+  @CacheEvict(key = "#result.id")
   public Reader save(Reader readerToSave) {
     var query = "INSERT INTO reader(name) VALUES(?)";
     KeyHolder keyHolder = new GeneratedKeyHolder();
@@ -36,6 +49,10 @@ public class ReaderDaoImpl implements ReaderDao {
       if (keyHolder.getKey() != null) {
         readerToSave.setId(keyHolder.getKey().longValue());
       }
+      if (borrowIndex != null) {
+        var savedReader = new Reader(readerToSave.getId(), readerToSave.getName());
+        DaoUtils.runAfterCommit(() -> borrowIndex.onReaderSave(savedReader));
+      }
       return readerToSave;
     } catch (DataAccessException e) {
       throw new DaoOperationException(String.format("Error saving reader: %s", readerToSave), e);
@@ -47,12 +64,13 @@ public class ReaderDaoImpl implements ReaderDao {
   }
 
   @Override
+  @Cacheable(unless = "#result == null")
   public Optional<Reader> findById(Long readerId) {
     var query = "SELECT id, name FROM reader WHERE id = ?";
     try {
       //noinspection DataFlowIssue
       return Optional.of(
-          jdbcTemplate.queryForObject(query, new BeanPropertyRowMapper<>(Reader.class), readerId));
+          jdbcTemplate.queryForObject(query, DaoUtils.getReaderRowMapper(), readerId));
     } catch (EmptyResultDataAccessException ex) {
       return Optional.empty();
     } catch (DataAccessException ex) {
@@ -61,11 +79,26 @@ public class ReaderDaoImpl implements ReaderDao {
     }
   }
 
+  @Override
+  public List<Reader> findAllByIds(Collection<Long> readerIds) {
+    if (readerIds.isEmpty()) {
+      return List.of();
+    }
+    var query = "SELECT id, name FROM reader WHERE id = ANY(?)";
+    try {
+      return jdbcTemplate.query(
+          query, DaoUtils.getIdArraySetter(readerIds), DaoUtils.getReaderRowMapper());
+    } catch (DataAccessException ex) {
+      throw new DaoOperationException(
+          String.format("Error finding %d readers by ids", readerIds.size()), ex);
+    }
+  }
+
   @Override
   public List<Reader> findAll() {
     var query = "SELECT id, name FROM reader";
     try {
-      return jdbcTemplate.query(query, new BeanPropertyRowMapper<>(Reader.class));
+      return jdbcTemplate.query(query, DaoUtils.getReaderRowMapper());
     } catch (DataAccessException e) {
       throw new DaoOperationException("Error finding all readers", e);
     }
@@ -73,6 +106,9 @@ public class ReaderDaoImpl implements ReaderDao {
 
   @Override
   public Optional<Reader> findReaderByBookId(Long bookId) {
+    if (borrowIndex != null && borrowIndex.isCurrent()) {
+      return borrowIndex.findReaderByBookId(bookId);
+    }
     var query =
         """
                 SELECT
@@ -84,7 +120,7 @@ public class ReaderDaoImpl implements ReaderDao {
     try {
       //noinspection DataFlowIssue
       return Optional.of(
-          jdbcTemplate.queryForObject(query, new BeanPropertyRowMapper<>(Reader.class), bookId));
+          jdbcTemplate.queryForObject(query, DaoUtils.getReaderRowMapper(), bookId));
     } catch (EmptyResultDataAccessException ex) {
       return Optional.empty();
     } catch (DataAccessException ex) {
@@ -95,6 +131,9 @@ public class ReaderDaoImpl implements ReaderDao {
 
   @Override
   public Map<Reader, List<BookDto>> findAllWithBooks() {
+    if (borrowIndex != null && borrowIndex.isCurrent()) {
+      return borrowIndex.findAllWithBooks();
+    }
     var query =
         """
                 SELECT
@@ -102,14 +141,38 @@ public class ReaderDaoImpl implements ReaderDao {
                   reader.name AS readerName,
                   book.id AS bookId,
                   book.name AS bookName,
-                  book.author AS bookAuthor
+                  book.author AS bookAuthor,
+                  COUNT(*) OVER (PARTITION BY reader.id) AS bookCount
                 FROM reader
                   INNER JOIN book ON reader.id = book.reader_id
+                ORDER BY reader.id, book.id
                 """;
     try {
-      return jdbcTemplate.query(query, DaoUtils.getReaderBooksExtractor());
+      return jdbcTemplate.query(query, DaoUtils.getOrderedReaderBooksExtractor());
     } catch (DataAccessException e) {
       throw new DaoOperationException("Error finding readers with borrowed books list!");
     }
   }
+
+  @Override
+  public Map<Reader, List<BookDto>> findAllWithOptionalBooks() {
+    var query =
+        """
+                SELECT
+                  reader.id AS readerId,
+                  reader.name AS readerName,
+                  book.id AS bookId,
+                  book.name AS bookName,
+                  book.author AS bookAuthor,
+                  COUNT(book.id) OVER (PARTITION BY reader.id) AS bookCount
+                FROM reader
+                  LEFT JOIN book ON reader.id = book.reader_id
+                ORDER BY reader.id, book.id
+                """;
+    try {
+      return jdbcTemplate.query(query, DaoUtils.getOrderedReaderBooksExtractor());
+    } catch (DataAccessException e) {
+      throw new DaoOperationException("Error finding all readers with borrowed books list!", e);
+    }
+  }
 }
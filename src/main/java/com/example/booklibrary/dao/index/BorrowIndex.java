@@ -0,0 +1,419 @@
+package com.example.booklibrary.dao.index;
+
+import com.example.booklibrary.dto.BookDto;
+import com.example.booklibrary.entity.Book;
+import com.example.booklibrary.entity.Reader;
+import com.example.booklibrary.exception.DaoOperationException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory copy of the current loans. Changes are applied after their transaction commits
+ * and only when they carry a newer book version than the one already indexed, so callbacks
+ * arriving out of commit order cannot roll the index back. The lock is never held across JDBC
+ * calls.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "library.borrow-index", name = "enabled", havingValue = "true")
+public class BorrowIndex {
+  private static final long NO_READER = 0L;
+  private static final long NO_VERSION = -1L;
+  private static final long[] NO_BOOKS = new long[0];
+  private static final int STREAM_CHUNK_SIZE = 256;
+  private static final long REWARM_INITIAL_DELAY_MILLIS = 1_000L;
+  private static final long REWARM_MAX_DELAY_MILLIS = 60_000L;
+  private final JdbcTemplate jdbcTemplate;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final AtomicReference<Thread> rewarmer = new AtomicReference<>();
+  private State state = new State();
+  private List<Consumer<State>> pendingDuringWarmUp;
+  private volatile boolean current = true;
+  private long failures;
+
+  @PostConstruct
+  public synchronized void warmUp() {
+    var readersQuery = "SELECT id, name FROM reader";
+    var loansQuery =
+        """
+                SELECT
+                  book.id,
+                  book.name,
+                  book.author,
+                  book.version,
+                  reader.id,
+                  reader.name
+                FROM book
+                  INNER JOIN reader ON book.reader_id = reader.id
+                """;
+    long failuresBefore;
+    lock.writeLock().lock();
+    try {
+      pendingDuringWarmUp = new ArrayList<>();
+      failuresBefore = failures;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    var warmState = new State();
+    try {
+      jdbcTemplate.query(
+          readersQuery,
+          rs -> {
+            warmState.readers.put(rs.getLong(1), new Reader(rs.getLong(1), rs.getString(2)));
+          });
+      jdbcTemplate.query(
+          loansQuery,
+          rs -> {
+            warmState.apply(
+                new BookDto(rs.getLong(1), rs.getString(2), rs.getString(3)),
+                new Reader(rs.getLong(5), rs.getString(6)),
+                rs.getLong(4));
+          });
+    } catch (DataAccessException ex) {
+      lock.writeLock().lock();
+      try {
+        pendingDuringWarmUp = null;
+      } finally {
+        lock.writeLock().unlock();
+      }
+      throw new DaoOperationException("Error warming up borrow index", ex);
+    }
+    lock.writeLock().lock();
+    try {
+      pendingDuringWarmUp.forEach(change -> change.accept(warmState));
+      pendingDuringWarmUp = null;
+      state = warmState;
+      current = failures == failuresBefore;
+      log.info("Borrow index warmed up with {} borrowed books", warmState.bookReaders.size());
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @PreDestroy
+  public void close() {
+    var thread = rewarmer.get();
+    if (thread != null) {
+      thread.interrupt();
+    }
+  }
+
+  /** Whether the index reflects every committed loan and may answer reads. */
+  public boolean isCurrent() {
+    return current;
+  }
+
+  public void onReaderSave(Reader reader) {
+    var indexed = copy(reader);
+    apply(indexedState -> indexedState.readers.put(indexed.getId(), indexed));
+  }
+
+  public void onBorrow(BookDto book, long readerId, long version) {
+    try {
+      var reader = findReader(readerId);
+      var indexed = copy(book);
+      apply(indexedState -> indexedState.apply(indexed, reader, version));
+    } catch (RuntimeException ex) {
+      markOutdated(book.getId(), ex);
+    }
+  }
+
+  public void onReturn(long bookId, long version) {
+    apply(indexedState -> indexedState.apply(bookId, version));
+  }
+
+  public List<BookDto> findAllByReaderId(long readerId) {
+    lock.readLock().lock();
+    try {
+      var bookIds = state.readerBooks.get(readerId);
+      if (bookIds == null) {
+        return new ArrayList<>();
+      }
+      List<BookDto> borrowedBooks = new ArrayList<>(bookIds.length);
+      for (long bookId : bookIds) {
+        borrowedBooks.add(copy(state.books.get(bookId)));
+      }
+      return borrowedBooks;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public Optional<Reader> findReaderByBookId(long bookId) {
+    lock.readLock().lock();
+    try {
+      var readerId = state.bookReaders.get(bookId, NO_READER);
+      return readerId == NO_READER
+          ? Optional.empty()
+          : Optional.of(copy(state.readers.get(readerId)));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public Map<Reader, List<BookDto>> findAllWithBooks() {
+    lock.readLock().lock();
+    try {
+      var readerIds = state.readerBooks.keys();
+      Arrays.sort(readerIds);
+      Map<Reader, List<BookDto>> map = new LinkedHashMap<>(readerIds.length * 4 / 3 + 1);
+      for (long readerId : readerIds) {
+        var bookIds = state.readerBooks.get(readerId).clone();
+        Arrays.sort(bookIds);
+        List<BookDto> borrowedBooks = new ArrayList<>(bookIds.length);
+        for (long bookId : bookIds) {
+          borrowedBooks.add(copy(state.books.get(bookId)));
+        }
+        map.put(copy(state.readers.get(readerId)), borrowedBooks);
+      }
+      return map;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public Map<Book, Reader> findAllWithReaders() {
+    lock.readLock().lock();
+    try {
+      Map<Book, Reader> map = new HashMap<>(state.bookReaders.size() * 4 / 3 + 1);
+      state.bookReaders.forEach(
+          (bookId, readerId) ->
+              map.put(
+                  toBook(state.books.get(bookId), readerId),
+                  copy(state.readers.get(readerId))));
+      return map;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Hands the current loans to {@code action} without building the whole map. Only the borrowed
+   * book ids are copied up front; loans are then materialized a chunk at a time under the read
+   * lock and passed to the action after it is released, so a slow consumer never blocks index
+   * updates. Books returned in the meantime are skipped.
+   */
+  public void forEachWithReader(BiConsumer<Book, Reader> action) {
+    long[] bookIds;
+    lock.readLock().lock();
+    try {
+      var collected = new long[state.bookReaders.size()];
+      var count = new int[1];
+      state.bookReaders.forEach((bookId, readerId) -> collected[count[0]++] = bookId);
+      bookIds = collected;
+    } finally {
+      lock.readLock().unlock();
+    }
+    List<Book> books = new ArrayList<>(STREAM_CHUNK_SIZE);
+    List<Reader> readers = new ArrayList<>(STREAM_CHUNK_SIZE);
+    for (int from = 0; from < bookIds.length; from += STREAM_CHUNK_SIZE) {
+      var to = Math.min(from + STREAM_CHUNK_SIZE, bookIds.length);
+      lock.readLock().lock();
+      try {
+        for (int i = from; i < to; i++) {
+          var readerId = state.bookReaders.get(bookIds[i], NO_READER);
+          if (readerId != NO_READER) {
+            books.add(toBook(state.books.get(bookIds[i]), readerId));
+            readers.add(copy(state.readers.get(readerId)));
+          }
+        }
+      } finally {
+        lock.readLock().unlock();
+      }
+      for (int i = 0; i < books.size(); i++) {
+        action.accept(books.get(i), readers.get(i));
+      }
+      books.clear();
+      readers.clear();
+    }
+  }
+
+  private Reader findReader(long readerId) {
+    lock.readLock().lock();
+    try {
+      var reader = state.readers.get(readerId);
+      if (reader != null) {
+        return reader;
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    var query = "SELECT id, name FROM reader WHERE id = ?";
+    try {
+      return jdbcTemplate.queryForObject(
+          query, (rs, rowNum) -> new Reader(rs.getLong(1), rs.getString(2)), readerId);
+    } catch (EmptyResultDataAccessException ex) {
+      throw new DaoOperationException(
+          String.format("Cannot index loan of missing reader with id: %d", readerId), ex);
+    }
+  }
+
+  private void apply(Consumer<State> change) {
+    lock.writeLock().lock();
+    try {
+      change.accept(state);
+      if (pendingDuringWarmUp != null) {
+        pendingDuringWarmUp.add(change);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void markOutdated(long bookId, RuntimeException ex) {
+    lock.writeLock().lock();
+    try {
+      failures++;
+      current = false;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    log.error(
+        "Cannot index loan of book with id: {}, reads bypass the borrow index until it is"
+            + " warmed up again",
+        bookId,
+        ex);
+    scheduleWarmUp();
+  }
+
+  /** Starts a background warm-up unless one is already running. */
+  private void scheduleWarmUp() {
+    var thread = new Thread(this::rewarm, "borrow-index-warm-up");
+    thread.setDaemon(true);
+    if (rewarmer.compareAndSet(null, thread)) {
+      thread.start();
+    }
+  }
+
+  private void rewarm() {
+    var delay = REWARM_INITIAL_DELAY_MILLIS;
+    try {
+      while (!current) {
+        try {
+          warmUp();
+        } catch (RuntimeException ex) {
+          log.warn("Cannot warm up borrow index, retrying in {} ms", delay, ex);
+          Thread.sleep(delay);
+          delay = Math.min(delay * 2, REWARM_MAX_DELAY_MILLIS);
+        }
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return;
+    } finally {
+      rewarmer.set(null);
+    }
+    // A callback may have failed after the last check and found this warm-up still running
+    if (!current) {
+      scheduleWarmUp();
+    }
+  }
+
+  private static Book toBook(BookDto book, long readerId) {
+    return Book.builder()
+        .id(book.getId())
+        .name(book.getName())
+        .author(book.getAuthor())
+        .readerId(readerId)
+        .build();
+  }
+
+  private static BookDto copy(BookDto book) {
+    return new BookDto(book.getId(), book.getName(), book.getAuthor());
+  }
+
+  private static Reader copy(Reader reader) {
+    return new Reader(reader.getId(), reader.getName());
+  }
+
+  private static final class State {
+    private static final int RETURNED_VERSIONS = 1 << 16;
+    private final LongLongHashMap bookReaders = new LongLongHashMap(1024);
+    private final LongLongHashMap bookVersions = new LongLongHashMap(1024);
+    private final LongObjectHashMap<long[]> readerBooks = new LongObjectHashMap<>(1024);
+    private final LongObjectHashMap<BookDto> books = new LongObjectHashMap<>(1024);
+    private final LongObjectHashMap<Reader> readers = new LongObjectHashMap<>(1024);
+    private final long[] returnedIds = new long[RETURNED_VERSIONS];
+    private final long[] returnedVersions = new long[RETURNED_VERSIONS];
+    private int nextReturned;
+
+    void apply(BookDto book, Reader reader, long version) {
+      long bookId = book.getId();
+      if (!advance(bookId, version)) {
+        return;
+      }
+      remove(bookId);
+      long readerId = reader.getId();
+      bookReaders.put(bookId, readerId);
+      books.put(bookId, book);
+      readers.put(readerId, reader);
+      var bookIds = Objects.requireNonNullElse(readerBooks.get(readerId), NO_BOOKS);
+      var extended = Arrays.copyOf(bookIds, bookIds.length + 1);
+      extended[bookIds.length] = bookId;
+      readerBooks.put(readerId, extended);
+    }
+
+    void apply(long bookId, long version) {
+      if (advance(bookId, version)) {
+        remove(bookId);
+        rememberReturn(bookId, version);
+      }
+    }
+
+    /**
+     * Versions of borrowed books stay until they are returned. After a return the version is
+     * only needed to reject a late borrow callback, so it is kept for the most recent returns
+     * only, which keeps the map bounded by the number of loans.
+     */
+    private void rememberReturn(long bookId, long version) {
+      var slot = nextReturned;
+      nextReturned = (nextReturned + 1) & (RETURNED_VERSIONS - 1);
+      var evictedId = returnedIds[slot];
+      if (evictedId != 0L
+          && bookReaders.get(evictedId, NO_READER) == NO_READER
+          && bookVersions.get(evictedId, NO_VERSION) == returnedVersions[slot]) {
+        bookVersions.remove(evictedId);
+      }
+      returnedIds[slot] = bookId;
+      returnedVersions[slot] = version;
+    }
+
+    private boolean advance(long bookId, long version) {
+      if (version <= bookVersions.get(bookId, NO_VERSION)) {
+        return false;
+      }
+      bookVersions.put(bookId, version);
+      return true;
+    }
+
+    private void remove(long bookId) {
+      var readerId = bookReaders.get(bookId, NO_READER);
+      if (readerId == NO_READER) {
+        return;
+      }
+      bookReaders.remove(bookId);
+      books.remove(bookId);
+      var remaining =
+          Arrays.stream(readerBooks.get(readerId)).filter(id -> id != bookId).toArray();
+      if (remaining.length == 0) {
+        readerBooks.remove(readerId);
+      } else {
+        readerBooks.put(readerId, remaining);
+      }
+    }
+  }
+}
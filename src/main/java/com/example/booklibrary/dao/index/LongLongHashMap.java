@@ -0,0 +1,120 @@
+package com.example.booklibrary.dao.index;
+
+import java.util.Arrays;
+
+class LongLongHashMap {
+  private static final long EMPTY = 0L;
+  private long[] keys;
+  private long[] values;
+  private int size;
+
+  LongLongHashMap(int expectedSize) {
+    var capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+    keys = new long[capacity];
+    values = new long[capacity];
+  }
+
+  long get(long key, long missingValue) {
+    var slot = find(key);
+    return slot < 0 ? missingValue : values[slot];
+  }
+
+  void put(long key, long value) {
+    requireKey(key);
+    var slot = find(key);
+    if (slot >= 0) {
+      values[slot] = value;
+      return;
+    }
+    if ((size + 1) * 2 > keys.length) {
+      resize();
+    }
+    slot = slotOf(key, keys.length);
+    while (keys[slot] != EMPTY) {
+      slot = (slot + 1) & (keys.length - 1);
+    }
+    keys[slot] = key;
+    values[slot] = value;
+    size++;
+  }
+
+  void remove(long key) {
+    var slot = find(key);
+    if (slot < 0) {
+      return;
+    }
+    var mask = keys.length - 1;
+    var next = (slot + 1) & mask;
+    while (keys[next] != EMPTY) {
+      var home = slotOf(keys[next], keys.length);
+      if (((next - home) & mask) >= ((next - slot) & mask)) {
+        keys[slot] = keys[next];
+        values[slot] = values[next];
+        slot = next;
+      }
+      next = (next + 1) & mask;
+    }
+    keys[slot] = EMPTY;
+    size--;
+  }
+
+  int size() {
+    return size;
+  }
+
+  void clear() {
+    Arrays.fill(keys, EMPTY);
+    size = 0;
+  }
+
+  void forEach(LongLongConsumer consumer) {
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != EMPTY) {
+        consumer.accept(keys[i], values[i]);
+      }
+    }
+  }
+
+  private int find(long key) {
+    if (key == EMPTY) {
+      return -1;
+    }
+    var slot = slotOf(key, keys.length);
+    while (keys[slot] != EMPTY) {
+      if (keys[slot] == key) {
+        return slot;
+      }
+      slot = (slot + 1) & (keys.length - 1);
+    }
+    return -1;
+  }
+
+  private void resize() {
+    var oldKeys = keys;
+    var oldValues = values;
+    keys = new long[oldKeys.length * 2];
+    values = new long[oldKeys.length * 2];
+    size = 0;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != EMPTY) {
+        put(oldKeys[i], oldValues[i]);
+      }
+    }
+  }
+
+  static int slotOf(long key, int capacity) {
+    var hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32)) & (capacity - 1);
+  }
+
+  static void requireKey(long key) {
+    if (key == EMPTY) {
+      throw new IllegalArgumentException("Index key must not be 0");
+    }
+  }
+
+  @FunctionalInterface
+  interface LongLongConsumer {
+    void accept(long key, long value);
+  }
+}
@@ -0,0 +1,125 @@
+package com.example.booklibrary.dao.index;
+
+import java.util.Arrays;
+
+class LongObjectHashMap<V> {
+  private static final long EMPTY = 0L;
+  private long[] keys;
+  private Object[] values;
+  private int size;
+
+  LongObjectHashMap(int expectedSize) {
+    var capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+    keys = new long[capacity];
+    values = new Object[capacity];
+  }
+
+  @SuppressWarnings("unchecked")
+  V get(long key) {
+    var slot = find(key);
+    return slot < 0 ? null : (V) values[slot];
+  }
+
+  void put(long key, V value) {
+    LongLongHashMap.requireKey(key);
+    var slot = find(key);
+    if (slot >= 0) {
+      values[slot] = value;
+      return;
+    }
+    if ((size + 1) * 2 > keys.length) {
+      resize();
+    }
+    slot = LongLongHashMap.slotOf(key, keys.length);
+    while (keys[slot] != EMPTY) {
+      slot = (slot + 1) & (keys.length - 1);
+    }
+    keys[slot] = key;
+    values[slot] = value;
+    size++;
+  }
+
+  void remove(long key) {
+    var slot = find(key);
+    if (slot < 0) {
+      return;
+    }
+    var mask = keys.length - 1;
+    var next = (slot + 1) & mask;
+    while (keys[next] != EMPTY) {
+      var home = LongLongHashMap.slotOf(keys[next], keys.length);
+      if (((next - home) & mask) >= ((next - slot) & mask)) {
+        keys[slot] = keys[next];
+        values[slot] = values[next];
+        slot = next;
+      }
+      next = (next + 1) & mask;
+    }
+    keys[slot] = EMPTY;
+    values[slot] = null;
+    size--;
+  }
+
+  int size() {
+    return size;
+  }
+
+  long[] keys() {
+    var result = new long[size];
+    var position = 0;
+    for (long key : keys) {
+      if (key != EMPTY) {
+        result[position++] = key;
+      }
+    }
+    return result;
+  }
+
+  void clear() {
+    Arrays.fill(keys, EMPTY);
+    Arrays.fill(values, null);
+    size = 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  void forEach(LongObjectConsumer<V> consumer) {
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != EMPTY) {
+        consumer.accept(keys[i], (V) values[i]);
+      }
+    }
+  }
+
+  private int find(long key) {
+    if (key == EMPTY) {
+      return -1;
+    }
+    var slot = LongLongHashMap.slotOf(key, keys.length);
+    while (keys[slot] != EMPTY) {
+      if (keys[slot] == key) {
+        return slot;
+      }
+      slot = (slot + 1) & (keys.length - 1);
+    }
+    return -1;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void resize() {
+    var oldKeys = keys;
+    var oldValues = values;
+    keys = new long[oldKeys.length * 2];
+    values = new Object[oldKeys.length * 2];
+    size = 0;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != EMPTY) {
+        put(oldKeys[i], (V) oldValues[i]);
+      }
+    }
+  }
+
+  @FunctionalInterface
+  interface LongObjectConsumer<V> {
+    void accept(long key, V value);
+  }
+}
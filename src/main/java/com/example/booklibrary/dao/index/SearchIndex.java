@@ -0,0 +1,408 @@
+package com.example.booklibrary.dao.index;
+
+import com.example.booklibrary.config.SearchIndexProperties;
+import com.example.booklibrary.dao.DaoUtils;
+import com.example.booklibrary.dto.BookDto;
+import com.example.booklibrary.dto.BookSearchResultDto;
+import com.example.booklibrary.entity.Book;
+import com.example.booklibrary.exception.DaoOperationException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "library.search-index", name = "enabled", havingValue = "true")
+public class SearchIndex {
+  private static final int SNAPSHOT_MAGIC = 0x42534958;
+  private static final int SNAPSHOT_FORMAT = 1;
+  private static final int SCAN_BATCH_SIZE = 10_000;
+  private static final int MAX_RANK = 3;
+  private static final int RANK_SHIFT = 60;
+  private static final long ID_MASK = (1L << RANK_SHIFT) - 1;
+  private final JdbcTemplate jdbcTemplate;
+  private final SearchIndexProperties properties;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final NavigableMap<String, Postings> terms = new TreeMap<>();
+  private final LongLongHashMap ordinals = new LongLongHashMap(1024);
+  private long[] ids = new long[1024];
+  private String[] names = new String[1024];
+  private String[] authors = new String[1024];
+  private int size;
+  private long maxId;
+
+  @PostConstruct
+  public synchronized void warmUp() {
+    var snapshot = properties.snapshot();
+    List<BookDto> restored =
+        snapshot != null && Files.exists(snapshot) ? readSnapshot(snapshot) : List.of();
+    lock.writeLock().lock();
+    try {
+      clear();
+      restored.forEach(book -> add(book.getId(), book.getName(), book.getAuthor()));
+    } finally {
+      lock.writeLock().unlock();
+    }
+    reconcile();
+    log.info(
+        "Search index warmed up with {} books, {} restored from snapshot",
+        size(),
+        restored.size());
+  }
+
+  @PreDestroy
+  public void close() {
+    if (properties.snapshot() != null) {
+      writeSnapshot(properties.snapshot());
+    }
+  }
+
+  public void onSave(Book book) {
+    lock.writeLock().lock();
+    try {
+      add(book.getId(), book.getName(), book.getAuthor());
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Indexes committed books that have not been seen yet, e.g. after a bulk copy. Failures are
+   * logged rather than thrown because the copy has already committed; the next catch-up or
+   * warm-up picks up whatever was missed.
+   */
+  public void catchUp() {
+    try {
+      reconcile();
+    } catch (DaoOperationException ex) {
+      log.warn("Cannot catch up search index, it is refreshed on the next catch-up", ex);
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return size;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public List<BookSearchResultDto> search(String query, int afterRank, long afterId, int limit) {
+    var tokens = tokenize(query);
+    if (tokens.isEmpty()) {
+      return new ArrayList<>();
+    }
+    var normalizedQuery = query.trim().toLowerCase(Locale.ROOT);
+    lock.readLock().lock();
+    try {
+      BitSet matches = null;
+      for (var token : tokens) {
+        var tokenMatches = new BitSet(size);
+        for (var entry : terms.tailMap(token, true).entrySet()) {
+          if (!entry.getKey().startsWith(token)) {
+            break;
+          }
+          entry.getValue().addTo(tokenMatches);
+        }
+        if (matches == null) {
+          matches = tokenMatches;
+        } else {
+          matches.and(tokenMatches);
+        }
+      }
+      var top = new TopKeys(limit);
+      var afterKey = sortKey(afterRank, afterId);
+      for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+        var key = sortKey(rank(names[doc], authors[doc], normalizedQuery), ids[doc]);
+        if (key > afterKey) {
+          top.offer(key);
+        }
+      }
+      var keys = top.sorted();
+      List<BookSearchResultDto> results = new ArrayList<>(keys.length);
+      for (long key : keys) {
+        var id = key & ID_MASK;
+        var doc = (int) ordinals.get(id, -1L);
+        results.add(
+            new BookSearchResultDto(id, names[doc], authors[doc], (int) (key >>> RANK_SHIFT)));
+      }
+      return results;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public void writeSnapshot(Path snapshot) {
+    lock.readLock().lock();
+    try {
+      var parent = snapshot.toAbsolutePath().getParent();
+      Files.createDirectories(parent);
+      var temporary = Files.createTempFile(parent, snapshot.getFileName().toString(), ".tmp");
+      try (var output =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+        output.writeInt(SNAPSHOT_MAGIC);
+        output.writeInt(SNAPSHOT_FORMAT);
+        output.writeInt(size);
+        for (int doc = 0; doc < size; doc++) {
+          output.writeLong(ids[doc]);
+          output.writeUTF(names[doc]);
+          output.writeUTF(authors[doc]);
+        }
+      }
+      Files.move(
+          temporary,
+          snapshot,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      log.info("Search index snapshot with {} books written to {}", size, snapshot);
+    } catch (IOException ex) {
+      log.warn("Cannot write search index snapshot to {}", snapshot, ex);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private List<BookDto> readSnapshot(Path snapshot) {
+    List<BookDto> books = new ArrayList<>();
+    long snapshotMaxId = 0L;
+    try (var input =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+      if (input.readInt() != SNAPSHOT_MAGIC || input.readInt() != SNAPSHOT_FORMAT) {
+        log.warn("Ignoring search index snapshot {} with unknown format", snapshot);
+        return List.of();
+      }
+      var count = input.readInt();
+      for (int i = 0; i < count; i++) {
+        var book = new BookDto(input.readLong(), input.readUTF(), input.readUTF());
+        books.add(book);
+        snapshotMaxId = Math.max(snapshotMaxId, book.getId());
+      }
+    } catch (IOException ex) {
+      log.warn("Ignoring unreadable search index snapshot {}", snapshot, ex);
+      return List.of();
+    }
+    var storedMaxId = jdbcTemplate.queryForObject("SELECT max(id) FROM book", Long.class);
+    if (storedMaxId == null || storedMaxId < snapshotMaxId) {
+      log.warn("Ignoring search index snapshot {} that is newer than the catalog", snapshot);
+      return List.of();
+    }
+    return books;
+  }
+
+  /**
+   * Ids are not committed in order, so a book with an id below {@code maxId} can become visible
+   * after newer ones were indexed. Books are never deleted, which lets a count over the indexed
+   * id range detect such gaps; only then is the whole catalog rescanned.
+   */
+  private void reconcile() {
+    long indexedMaxId;
+    int indexedSize;
+    lock.readLock().lock();
+    try {
+      indexedMaxId = maxId;
+    } finally {
+      lock.readLock().unlock();
+    }
+    indexAfter(indexedMaxId);
+    lock.readLock().lock();
+    try {
+      indexedMaxId = maxId;
+      indexedSize = size;
+    } finally {
+      lock.readLock().unlock();
+    }
+    var query = "SELECT count(*) FROM book WHERE id <= ?";
+    Long stored;
+    try {
+      stored = jdbcTemplate.queryForObject(query, Long.class, indexedMaxId);
+    } catch (DataAccessException ex) {
+      throw new DaoOperationException(
+          String.format("Error counting books up to id: %d", indexedMaxId), ex);
+    }
+    if (stored != null && stored != indexedSize) {
+      log.info(
+          "Search index misses {} books below id {}, rescanning",
+          stored - indexedSize,
+          indexedMaxId);
+      indexAfter(0L);
+    }
+  }
+
+  /**
+   * Reads books in id order one batch at a time without holding the lock, so searches keep
+   * running during the round trips; only adding a fetched batch takes the write lock.
+   */
+  private void indexAfter(long afterId) {
+    var query = "SELECT id, name, author FROM book WHERE id > ? ORDER BY id LIMIT ?";
+    var lastId = afterId;
+    List<BookDto> batch;
+    do {
+      try {
+        batch =
+            jdbcTemplate.query(query, DaoUtils.getBookDtoRowMapper(), lastId, SCAN_BATCH_SIZE);
+      } catch (DataAccessException ex) {
+        throw new DaoOperationException(
+            String.format("Error indexing books after id: %d", lastId), ex);
+      }
+      lock.writeLock().lock();
+      try {
+        batch.forEach(book -> add(book.getId(), book.getName(), book.getAuthor()));
+      } finally {
+        lock.writeLock().unlock();
+      }
+      if (!batch.isEmpty()) {
+        lastId = batch.get(batch.size() - 1).getId();
+      }
+    } while (batch.size() == SCAN_BATCH_SIZE);
+  }
+
+  private void add(long id, String name, String author) {
+    if (ordinals.get(id, -1L) >= 0) {
+      return;
+    }
+    if (size == ids.length) {
+      ids = Arrays.copyOf(ids, size * 2);
+      names = Arrays.copyOf(names, size * 2);
+      authors = Arrays.copyOf(authors, size * 2);
+    }
+    var doc = size++;
+    ids[doc] = id;
+    names[doc] = name;
+    authors[doc] = author;
+    ordinals.put(id, doc);
+    maxId = Math.max(maxId, id);
+    var bookTerms = tokenize(name);
+    bookTerms.addAll(tokenize(author));
+    for (var term : bookTerms) {
+      terms.computeIfAbsent(term, key -> new Postings()).add(doc);
+    }
+  }
+
+  private void clear() {
+    terms.clear();
+    ordinals.clear();
+    Arrays.fill(names, 0, size, null);
+    Arrays.fill(authors, 0, size, null);
+    size = 0;
+    maxId = 0L;
+  }
+
+  static Set<String> tokenize(String text) {
+    Set<String> tokens = new LinkedHashSet<>();
+    var lowerCase = text.toLowerCase(Locale.ROOT);
+    var start = -1;
+    for (int i = 0; i <= lowerCase.length(); i++) {
+      var letterOrDigit = i < lowerCase.length() && Character.isLetterOrDigit(lowerCase.charAt(i));
+      if (letterOrDigit && start < 0) {
+        start = i;
+      } else if (!letterOrDigit && start >= 0) {
+        tokens.add(lowerCase.substring(start, i));
+        start = -1;
+      }
+    }
+    return tokens;
+  }
+
+  private static int rank(String name, String author, String normalizedQuery) {
+    if (name.equalsIgnoreCase(normalizedQuery)) {
+      return 0;
+    }
+    if (name.regionMatches(true, 0, normalizedQuery, 0, normalizedQuery.length())) {
+      return 1;
+    }
+    return author.regionMatches(true, 0, normalizedQuery, 0, normalizedQuery.length()) ? 2 : 3;
+  }
+
+  /** Packs (rank, id) into one long that orders like the keyset cursor of the SQL search. */
+  private static long sortKey(int rank, long id) {
+    return ((long) Math.min(Math.max(rank, 0), MAX_RANK + 1) << RANK_SHIFT) | id;
+  }
+
+  /** Max-heap of the {@code limit} smallest keys, so a page costs O(matches log limit). */
+  private static final class TopKeys {
+    private final long[] heap;
+    private int size;
+
+    TopKeys(int limit) {
+      heap = new long[limit];
+    }
+
+    void offer(long key) {
+      if (size < heap.length) {
+        heap[size] = key;
+        siftUp(size++);
+      } else if (size > 0 && key < heap[0]) {
+        heap[0] = key;
+        siftDown(0);
+      }
+    }
+
+    long[] sorted() {
+      var keys = Arrays.copyOf(heap, size);
+      Arrays.sort(keys);
+      return keys;
+    }
+
+    private void siftUp(int index) {
+      var key = heap[index];
+      while (index > 0) {
+        var parent = (index - 1) >>> 1;
+        if (heap[parent] >= key) {
+          break;
+        }
+        heap[index] = heap[parent];
+        index = parent;
+      }
+      heap[index] = key;
+    }
+
+    private void siftDown(int index) {
+      var key = heap[index];
+      var half = size >>> 1;
+      while (index < half) {
+        var child = 2 * index + 1;
+        if (child + 1 < size && heap[child + 1] > heap[child]) {
+          child++;
+        }
+        if (key >= heap[child]) {
+          break;
+        }
+        heap[index] = heap[child];
+        index = child;
+      }
+      heap[index] = key;
+    }
+  }
+
+  private static final class Postings {
+    private int[] docs = new int[2];
+    private int size;
+
+    void add(int doc) {
+      if (size == docs.length) {
+        docs = Arrays.copyOf(docs, size * 2);
+      }
+      docs[size++] = doc;
+    }
+
+    void addTo(BitSet matches) {
+      for (int i = 0; i < size; i++) {
+        matches.set(docs[i]);
+      }
+    }
+  }
+}
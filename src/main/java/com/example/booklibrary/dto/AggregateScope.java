@@ -0,0 +1,6 @@
+package com.example.booklibrary.dto;
+
+public enum AggregateScope {
+  BORROWED,
+  ALL
+}
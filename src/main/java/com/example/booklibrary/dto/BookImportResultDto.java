@@ -0,0 +1,16 @@
+package com.example.booklibrary.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class BookImportResultDto {
+  private long imported;
+  private long rejected;
+  private List<ImportChunkDto> chunks;
+  private List<ImportErrorDto> errors;
+}
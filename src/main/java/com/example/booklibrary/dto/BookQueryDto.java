@@ -0,0 +1,18 @@
+package com.example.booklibrary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+@AllArgsConstructor
+public class BookQueryDto {
+  private Boolean available;
+  private String author;
+  private Long readerId;
+  @Builder.Default private BookSortKey sort = BookSortKey.ID;
+  private long afterId;
+  private String afterValue;
+  private int limit;
+}
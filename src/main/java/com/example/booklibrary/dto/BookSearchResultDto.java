@@ -0,0 +1,13 @@
+package com.example.booklibrary.dto;
+
+import lombok.*;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookSearchResultDto {
+  private Long id;
+  private String name;
+  private String author;
+  private Integer rank;
+}
@@ -0,0 +1,7 @@
+package com.example.booklibrary.dto;
+
+public enum BookSortKey {
+  ID,
+  NAME,
+  AUTHOR
+}
@@ -0,0 +1,6 @@
+package com.example.booklibrary.dto;
+
+public enum CirculationOperation {
+  BORROW,
+  RETURN
+}
@@ -0,0 +1,28 @@
+package com.example.booklibrary.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CirculationRequestDto {
+  @NotNull(message = "Operation cannot be null!")
+  @Schema(description = "Whether to borrow or return the book", example = "BORROW")
+  private CirculationOperation operation;
+
+  @NotNull(message = "Book ID cannot be null!")
+  @Positive(message = "Book ID must be a positive number")
+  @Schema(description = "ID of the book", type = "Long", example = "1")
+  private Long bookId;
+
+  @Positive(message = "Reader ID must be a positive number")
+  @Schema(description = "ID of the reader, required to borrow", type = "Long", example = "2")
+  private Long readerId;
+}
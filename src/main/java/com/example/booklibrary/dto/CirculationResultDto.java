@@ -0,0 +1,17 @@
+package com.example.booklibrary.dto;
+
+import com.example.booklibrary.dao.CirculationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class CirculationResultDto {
+  private long bookId;
+  private Long readerId;
+  private CirculationOperation operation;
+  private CirculationStatus status;
+  private String errorMessage;
+}
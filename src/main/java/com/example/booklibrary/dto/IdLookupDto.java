@@ -0,0 +1,14 @@
+package com.example.booklibrary.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class IdLookupDto<T> {
+  private List<T> found;
+  private List<Long> missingIds;
+}
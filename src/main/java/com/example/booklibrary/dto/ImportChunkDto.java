@@ -0,0 +1,14 @@
+package com.example.booklibrary.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class ImportChunkDto {
+  private int chunk;
+  private List<Long> ids;
+}
@@ -0,0 +1,15 @@
+package com.example.booklibrary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class ImportErrorDto {
+  private long item;
+  private String field;
+  private String message;
+  private String rejectedValue;
+}
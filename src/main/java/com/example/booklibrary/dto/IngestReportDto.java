@@ -0,0 +1,14 @@
+package com.example.booklibrary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class IngestReportDto {
+  private long rows;
+  private long millis;
+  private double rowsPerSecond;
+}
@@ -39,4 +39,12 @@ public class Book {
 
   @Schema(description = "ID of the borrowed reader", type = "Long", example = "2")
   private Long readerId;
+
+  @EqualsAndHashCode.Exclude
+  @Schema(
+      description = "Version of the book, changes on every borrow and return",
+      type = "Long",
+      example = "0",
+      accessMode = Schema.AccessMode.READ_ONLY)
+  private Long version;
 }
@@ -0,0 +1,75 @@
+package com.example.booklibrary.filter;
+
+import com.example.booklibrary.config.ConcurrencyLimitProperties;
+import com.example.booklibrary.util.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+  private static final String API_PATH = "/api/";
+  private static final String TOO_MANY_REQUESTS = "Library is busy, please retry later";
+  private final Semaphore permits;
+  private final long acquireTimeoutNanos;
+  private final ObjectMapper objectMapper;
+
+  public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, ObjectMapper objectMapper) {
+    this.permits = new Semaphore(properties.maxInFlight(), true);
+    this.acquireTimeoutNanos = properties.acquireTimeout().toNanos();
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !request.getRequestURI().startsWith(request.getContextPath() + API_PATH);
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    boolean acquired;
+    try {
+      acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      acquired = false;
+    }
+    if (!acquired) {
+      reject(response);
+      return;
+    }
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      permits.release();
+    }
+  }
+
+  private void reject(HttpServletResponse response) throws IOException {
+    var errorResponse =
+        ErrorResponse.builder()
+            .localDateTime(LocalDateTime.now())
+            .errorMessage(TOO_MANY_REQUESTS)
+            .build();
+    response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    objectMapper.writeValue(response.getOutputStream(), errorResponse);
+  }
+}
@@ -0,0 +1,163 @@
+package com.example.booklibrary.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpLogWriter;
+import org.zalando.logbook.Precorrelation;
+
+@Slf4j
+public class AsyncHttpLogWriter implements HttpLogWriter, MeterBinder, AutoCloseable {
+  private static final int DRAIN_BATCH_SIZE = 256;
+  private static final Duration POLL_TIMEOUT = Duration.ofMillis(100);
+  private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(5);
+  private static final String TRUNCATED_SUFFIX = "...[truncated]";
+
+  private final HttpLogWriter delegate;
+  private final BlockingQueue<HttpLogRecord> buffer;
+  private final OverflowPolicy overflowPolicy;
+  private final int overflowSampleRate;
+  private final int maxRecordLength;
+  private final LongAdder written = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final AtomicLong overflowed = new AtomicLong();
+  private final Thread worker;
+  private volatile boolean running = true;
+
+  public AsyncHttpLogWriter(
+      HttpLogWriter delegate,
+      int bufferSize,
+      OverflowPolicy overflowPolicy,
+      int overflowSampleRate,
+      int maxRecordLength) {
+    this.delegate = delegate;
+    this.buffer = new ArrayBlockingQueue<>(bufferSize);
+    this.overflowPolicy = overflowPolicy;
+    this.overflowSampleRate = overflowSampleRate;
+    this.maxRecordLength = maxRecordLength;
+    this.worker = new Thread(this::drain, "http-log-writer");
+    this.worker.setDaemon(true);
+    this.worker.start();
+  }
+
+  @Override
+  public boolean isActive() {
+    return delegate.isActive();
+  }
+
+  @Override
+  public void write(Precorrelation precorrelation, String request) {
+    enqueue(new HttpLogRecord(precorrelation, null, truncate(request)));
+  }
+
+  @Override
+  public void write(Correlation correlation, String response) {
+    enqueue(new HttpLogRecord(correlation, correlation, truncate(response)));
+  }
+
+  public long writtenCount() {
+    return written.sum();
+  }
+
+  public long droppedCount() {
+    return dropped.sum();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("library.http.log.written", written, LongAdder::sum)
+        .description("HTTP log records handed to the logger")
+        .register(registry);
+    FunctionCounter.builder("library.http.log.dropped", dropped, LongAdder::sum)
+        .description("HTTP log records discarded because the buffer was full")
+        .register(registry);
+    Gauge.builder("library.http.log.buffer.size", buffer, BlockingQueue::size)
+        .description("HTTP log records waiting to be written")
+        .register(registry);
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    running = false;
+    worker.join(CLOSE_TIMEOUT.toMillis());
+    HttpLogRecord record;
+    while ((record = buffer.poll()) != null) {
+      writeRecord(record);
+    }
+  }
+
+  private void enqueue(HttpLogRecord record) {
+    if (!running) {
+      writeRecord(record);
+      return;
+    }
+    if (buffer.offer(record)) {
+      return;
+    }
+    if (overflowPolicy == OverflowPolicy.SAMPLE
+        && overflowed.incrementAndGet() % overflowSampleRate == 0) {
+      writeRecord(record);
+      return;
+    }
+    dropped.increment();
+  }
+
+  private void drain() {
+    var batch = new ArrayList<HttpLogRecord>(DRAIN_BATCH_SIZE);
+    while (running) {
+      try {
+        var record = buffer.poll(POLL_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        if (record == null) {
+          continue;
+        }
+        batch.add(record);
+        buffer.drainTo(batch, DRAIN_BATCH_SIZE - 1);
+        batch.forEach(this::writeRecord);
+        batch.clear();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private void writeRecord(HttpLogRecord record) {
+    try {
+      if (record.correlation() == null) {
+        delegate.write(record.precorrelation(), record.message());
+      } else {
+        delegate.write(record.correlation(), record.message());
+      }
+      written.increment();
+    } catch (IOException | RuntimeException ex) {
+      dropped.increment();
+      log.warn("Failed to write HTTP log record", ex);
+    }
+  }
+
+  private String truncate(String message) {
+    if (message.length() <= maxRecordLength) {
+      return message;
+    }
+    return message.substring(0, maxRecordLength) + TRUNCATED_SUFFIX;
+  }
+
+  public enum OverflowPolicy {
+    DROP,
+    SAMPLE
+  }
+
+  private record HttpLogRecord(
+      Precorrelation precorrelation, Correlation correlation, String message) {}
+}
@@ -0,0 +1,68 @@
+package com.example.booklibrary.logging;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Precorrelation;
+import org.zalando.logbook.Sink;
+import org.zalando.logbook.Strategy;
+
+public class SamplingHttpLogStrategy implements Strategy {
+  private static final int ERROR_STATUS = 400;
+
+  private final PathMatcher pathMatcher = new AntPathMatcher();
+  private final int sampleRate;
+  private final List<String> headersOnlyPaths;
+  private final AtomicLong successCount = new AtomicLong();
+
+  public SamplingHttpLogStrategy(int sampleRate, List<String> headersOnlyPaths) {
+    this.sampleRate = sampleRate;
+    this.headersOnlyPaths = List.copyOf(headersOnlyPaths);
+  }
+
+  @Override
+  public HttpRequest process(HttpRequest request) throws IOException {
+    return isHeadersOnly(request) ? request.withoutBody() : request.withBody();
+  }
+
+  @Override
+  public void write(Precorrelation precorrelation, HttpRequest request, Sink sink) {
+    // The request is written together with its response once the status is known
+  }
+
+  @Override
+  public HttpResponse process(HttpRequest request, HttpResponse response) throws IOException {
+    // Called before the handler runs, so the final status is only known in write()
+    return response.withBody();
+  }
+
+  @Override
+  public void write(
+      Correlation correlation, HttpRequest request, HttpResponse response, Sink sink)
+      throws IOException {
+    if (response.getStatus() >= ERROR_STATUS) {
+      // Error bodies carry the failure details; logbook.write.max-body-size still caps them
+      sink.writeBoth(correlation, request, response);
+    } else if (isSampled()) {
+      sink.writeBoth(
+          correlation, request, isHeadersOnly(request) ? response.withoutBody() : response);
+    }
+  }
+
+  private boolean isSampled() {
+    return successCount.getAndIncrement() % sampleRate == 0;
+  }
+
+  private boolean isHeadersOnly(HttpRequest request) {
+    if (!"GET".equals(request.getMethod())) {
+      return false;
+    }
+    var path = request.getPath();
+    return headersOnlyPaths.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+  }
+}
@@ -0,0 +1,86 @@
+package com.example.booklibrary.metrics;
+
+import com.example.booklibrary.exception.DaoOperationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.util.ClassUtils;
+
+public class DaoMetricsInterceptor implements MethodInterceptor {
+  private final Supplier<MeterRegistry> registry;
+  private final Map<Method, DaoMeters> meters = new ConcurrentHashMap<>();
+
+  public DaoMetricsInterceptor(Supplier<MeterRegistry> registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    var daoMeters =
+        meters.computeIfAbsent(
+            invocation.getMethod(), method -> createMeters(invocation.getThis(), method));
+    var start = System.nanoTime();
+    try {
+      var result = invocation.proceed();
+      var rows = countRows(result);
+      if (rows > 0) {
+        daoMeters.rows().increment(rows);
+      }
+      return result;
+    } catch (DaoOperationException ex) {
+      daoMeters.errors().increment();
+      throw ex;
+    } finally {
+      daoMeters.timer().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private DaoMeters createMeters(Object dao, Method method) {
+    var meterRegistry = registry.get();
+    var daoName = ClassUtils.getUserClass(dao).getSimpleName();
+    var methodName = method.getName();
+    return new DaoMeters(
+        Timer.builder("library.dao.calls")
+            .description("DAO method execution time")
+            .tag("dao", daoName)
+            .tag("method", methodName)
+            .publishPercentileHistogram()
+            .register(meterRegistry),
+        Counter.builder("library.dao.rows")
+            .description("Rows returned by DAO methods")
+            .tag("dao", daoName)
+            .tag("method", methodName)
+            .register(meterRegistry),
+        Counter.builder("library.dao.errors")
+            .description("DaoOperationException thrown by DAO methods")
+            .tag("dao", daoName)
+            .tag("method", methodName)
+            .register(meterRegistry));
+  }
+
+  private static long countRows(Object result) {
+    if (result instanceof Collection<?> collection) {
+      return collection.size();
+    }
+    if (result instanceof Map<?, ?> map) {
+      return map.values().stream()
+          .mapToLong(value -> value instanceof Collection<?> books ? books.size() : 1)
+          .sum();
+    }
+    if (result instanceof Optional<?> optional) {
+      return optional.isPresent() ? 1 : 0;
+    }
+    return 0;
+  }
+
+  private record DaoMeters(Timer timer, Counter rows, Counter errors) {}
+}
@@ -0,0 +1,43 @@
+package com.example.booklibrary.service;
+
+import com.example.booklibrary.entity.Book;
+import com.example.booklibrary.util.CsvUtils;
+import com.fasterxml.jackson.databind.MappingIterator;
+import java.io.IOException;
+import java.io.Reader;
+
+class BookCsvReader extends Reader {
+  private final MappingIterator<Book> books;
+  private String row = "";
+  private int position;
+
+  BookCsvReader(MappingIterator<Book> books) {
+    this.books = books;
+  }
+
+  @Override
+  public int read(char[] buffer, int offset, int length) throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    while (position == row.length()) {
+      if (!books.hasNextValue()) {
+        return -1;
+      }
+      var book = books.nextValue();
+      if (book != null) {
+        row = CsvUtils.toCsvRow(book.getName(), book.getAuthor());
+        position = 0;
+      }
+    }
+    var count = Math.min(length, row.length() - position);
+    row.getChars(position, position + count, buffer, offset);
+    position += count;
+    return count;
+  }
+
+  @Override
+  public void close() throws IOException {
+    books.close();
+  }
+}
@@ -0,0 +1,145 @@
+package com.example.booklibrary.service;
+
+import com.example.booklibrary.config.BookImportProperties;
+import com.example.booklibrary.dao.BookDao;
+import com.example.booklibrary.dto.BookImportResultDto;
+import com.example.booklibrary.dto.ImportChunkDto;
+import com.example.booklibrary.dto.ImportErrorDto;
+import com.example.booklibrary.dto.IngestReportDto;
+import com.example.booklibrary.entity.Book;
+import com.example.booklibrary.exception.LibraryServiceException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class BookImportService {
+  private static final String ID_NOT_ALLOWED = "Request body should not contain book id value";
+  private final BookDao bookDao;
+  private final Validator validator;
+  private final ObjectMapper objectMapper;
+  private final BookImportProperties importProperties;
+  private final CatalogVersion catalogVersion;
+
+  public BookImportResultDto importBooks(InputStream books) {
+    var chunkSize = importProperties.chunkSize();
+    List<ImportChunkDto> chunks = new ArrayList<>();
+    List<ImportErrorDto> errors = new ArrayList<>();
+    List<Book> chunk = new ArrayList<>(chunkSize);
+    long item = 0;
+    long imported = 0;
+    long rejected = 0;
+
+    try (MappingIterator<Book> iterator = objectMapper.readerFor(Book.class).readValues(books)) {
+      while (iterator.hasNextValue()) {
+        var book = iterator.nextValue();
+        var bookErrors = validate(item++, book);
+        if (bookErrors.isEmpty()) {
+          chunk.add(book);
+        } else {
+          errors.addAll(bookErrors);
+          rejected++;
+        }
+        if (chunk.size() == chunkSize) {
+          chunks.add(saveChunk(chunks.size(), chunk));
+          imported += chunk.size();
+          chunk = new ArrayList<>(chunkSize);
+        }
+      }
+    } catch (JsonProcessingException ex) {
+      errors.add(new ImportErrorDto(item, null, "Malformed book: " + ex.getOriginalMessage(), null));
+      rejected++;
+    } catch (IOException ex) {
+      errors.add(new ImportErrorDto(item, null, "Cannot read books: " + ex.getMessage(), null));
+      rejected++;
+    }
+
+    if (!chunk.isEmpty()) {
+      chunks.add(saveChunk(chunks.size(), chunk));
+      imported += chunk.size();
+    }
+    return new BookImportResultDto(imported, rejected, chunks, errors);
+  }
+
+  public IngestReportDto ingestCsv(InputStream books, boolean header) {
+    var csvBooks = new BufferedReader(new InputStreamReader(books, StandardCharsets.UTF_8));
+    return ingest(
+        () -> {
+          if (header) {
+            csvBooks.readLine();
+          }
+          return bookDao.copyFromCsv(csvBooks);
+        });
+  }
+
+  public IngestReportDto ingestNdjson(InputStream books) {
+    return ingest(
+        () -> {
+          try (var csvBooks =
+              new BookCsvReader(objectMapper.readerFor(Book.class).readValues(books))) {
+            return bookDao.copyFromCsv(csvBooks);
+          }
+        });
+  }
+
+  private IngestReportDto ingest(IngestOperation operation) {
+    var start = System.nanoTime();
+    long rows;
+    try {
+      rows = operation.run();
+    } catch (IOException ex) {
+      throw new LibraryServiceException("Cannot read books: " + ex.getMessage());
+    }
+    catalogVersion.increment();
+    var millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    var rowsPerSecond = millis == 0 ? rows * 1000.0 : rows * 1000.0 / millis;
+    return new IngestReportDto(rows, millis, rowsPerSecond);
+  }
+
+  private List<ImportErrorDto> validate(long item, Book book) {
+    if (book == null) {
+      return List.of(new ImportErrorDto(item, null, "Book cannot be null!", "null"));
+    }
+    List<ImportErrorDto> errors = new ArrayList<>();
+    if (book.getId() != null) {
+      errors.add(new ImportErrorDto(item, "id", ID_NOT_ALLOWED, book.getId().toString()));
+    }
+    validator.validate(book).stream()
+        .map(
+            violation ->
+                new ImportErrorDto(
+                    item,
+                    violation.getPropertyPath().toString(),
+                    violation.getMessage(),
+                    String.valueOf(violation.getInvalidValue())))
+        .sorted(
+            Comparator.comparing(ImportErrorDto::getField)
+                .thenComparing(ImportErrorDto::getMessage))
+        .forEach(errors::add);
+    return errors;
+  }
+
+  private ImportChunkDto saveChunk(int chunkNumber, List<Book> chunk) {
+    var ids = bookDao.saveAll(chunk).stream().map(Book::getId).toList();
+    catalogVersion.increment();
+    return new ImportChunkDto(chunkNumber, ids);
+  }
+
+  @FunctionalInterface
+  private interface IngestOperation {
+    long run() throws IOException;
+  }
+}
@@ -0,0 +1,18 @@
+package com.example.booklibrary.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CatalogVersion {
+  private final long epoch = System.currentTimeMillis();
+  private final AtomicLong changes = new AtomicLong();
+
+  public String current() {
+    return epoch + "-" + changes.get();
+  }
+
+  public void increment() {
+    changes.incrementAndGet();
+  }
+}
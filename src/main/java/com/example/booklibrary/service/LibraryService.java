@@ -1,17 +1,33 @@
 package com.example.booklibrary.service;
 
 import com.example.booklibrary.dao.BookDao;
+import com.example.booklibrary.dao.CirculationStatus;
 import com.example.booklibrary.dao.ReaderDao;
 import com.example.booklibrary.dto.BookDto;
+import com.example.booklibrary.dto.BookQueryDto;
+import com.example.booklibrary.dto.BookSearchResultDto;
+import com.example.booklibrary.dto.BookSortKey;
 import com.example.booklibrary.dto.BookWithReaderDto;
+import com.example.booklibrary.dto.CirculationRequestDto;
+import com.example.booklibrary.dto.CirculationResultDto;
+import com.example.booklibrary.dto.IdLookupDto;
 import com.example.booklibrary.dto.ReaderWithBooksDto;
 import com.example.booklibrary.entity.Book;
 import com.example.booklibrary.entity.Reader;
+import com.example.booklibrary.exception.BookVersionMismatchException;
 import com.example.booklibrary.exception.LibraryServiceException;
 import com.example.booklibrary.mapper.BookMapper;
 import com.example.booklibrary.mapper.ReaderMapper;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -21,17 +37,61 @@ import org.springframework.stereotype.Service;
 public class LibraryService {
   private static final String BOOK_NOT_FOUND = "This Book ID doesn't exist!";
   private static final String READER_NOT_FOUND = "This Reader ID doesn't exist!";
+  private static final String MISSING_CURSOR_VALUE =
+      "Cursor value is required when books are not sorted by ID";
+  private static final String BOOK_ALREADY_BORROWED = "Cannot borrow already borrowed Book!";
+  private static final String BOOK_NOT_BORROWED =
+      "Cannot return Book. Book is already in the Library!";
+  private static final String VERSION_MISMATCH =
+      "Book has been changed by another request. Get the current version and retry!";
   private BookDao bookDao;
   private ReaderDao readerDao;
+  private CatalogVersion catalogVersion;
+
+  public String getCatalogVersion() {
+    return catalogVersion.current();
+  }
 
   public List<BookDto> findAllBooks() {
     return bookDao.findAll();
   }
 
+  public List<BookDto> findBooksPage(long afterId, int limit) {
+    return bookDao.findAllAfter(afterId, limit);
+  }
+
+  public List<BookDto> findBooks(BookQueryDto bookQuery) {
+    if (bookQuery.getSort() != BookSortKey.ID
+        && bookQuery.getAfterId() > 0
+        && bookQuery.getAfterValue() == null) {
+      throw new LibraryServiceException(MISSING_CURSOR_VALUE);
+    }
+    return bookDao.findAllMatching(bookQuery);
+  }
+
+  public List<BookSearchResultDto> searchBooks(
+      String query, int afterRank, long afterId, int limit) {
+    return bookDao.search(query.trim(), afterRank, afterId, limit);
+  }
+
+  public IdLookupDto<BookDto> findBooksByIds(Collection<Long> bookIds) {
+    var requestedIds = new LinkedHashSet<>(bookIds);
+    return orderByRequest(requestedIds, bookDao.findAllByIds(requestedIds), BookDto::getId);
+  }
+
   public List<Reader> findAllReader() {
     return readerDao.findAll();
   }
 
+  public IdLookupDto<Reader> findReadersByIds(Collection<Long> readerIds) {
+    var requestedIds = new LinkedHashSet<>(readerIds);
+    return orderByRequest(requestedIds, readerDao.findAllByIds(requestedIds), Reader::getId);
+  }
+
+  public Book findBookById(Long bookId) {
+    return bookDao.findById(bookId).orElseThrow(() -> new LibraryServiceException(BOOK_NOT_FOUND));
+  }
+
   public Optional<Reader> showCurrentReaderOfBook(Long bookId) {
     bookDao.findById(bookId).orElseThrow(() -> new LibraryServiceException(BOOK_NOT_FOUND));
 
@@ -45,34 +105,35 @@ public class LibraryService {
   }
 
   public Reader addNewReader(Reader reader) {
-    return readerDao.save(reader);
+    var savedReader = readerDao.save(reader);
+    catalogVersion.increment();
+    return savedReader;
   }
 
   public Book addNewBook(Book book) {
-    return bookDao.save(book);
+    var savedBook = bookDao.save(book);
+    catalogVersion.increment();
+    return savedBook;
   }
 
   public void borrowBook(Long bookId, Long readerId) {
-    bookDao.findById(bookId).orElseThrow(() -> new LibraryServiceException(BOOK_NOT_FOUND));
-    readerDao.findById(readerId).orElseThrow(() -> new LibraryServiceException(READER_NOT_FOUND));
-    readerDao
-        .findReaderByBookId(bookId)
-        .ifPresent(
-            reader -> {
-              throw new LibraryServiceException("Cannot borrow already borrowed Book!");
-            });
+    requireSuccess(bookDao.tryBorrow(bookId, readerId));
+    catalogVersion.increment();
+  }
 
-    bookDao.borrow(bookId, readerId);
+  public void borrowBook(Long bookId, Long readerId, long version) {
+    requireSuccess(bookDao.tryBorrow(bookId, readerId, version));
+    catalogVersion.increment();
   }
 
   public void returnBookToLibrary(Long bookId) {
-    bookDao.findById(bookId).orElseThrow(() -> new LibraryServiceException(BOOK_NOT_FOUND));
-    readerDao
-        .findReaderByBookId(bookId)
-        .orElseThrow(
-            () ->
-                new LibraryServiceException("Cannot return Book. Book is already in the Library!"));
-    bookDao.returnBook(bookId);
+    requireSuccess(bookDao.tryReturn(bookId));
+    catalogVersion.increment();
+  }
+
+  public void returnBookToLibrary(Long bookId, long version) {
+    requireSuccess(bookDao.tryReturn(bookId, version));
+    catalogVersion.increment();
   }
 
   public List<ReaderWithBooksDto> findAllReadersWithBooks() {
@@ -82,6 +143,13 @@ public class LibraryService {
         .toList();
   }
 
+  public List<ReaderWithBooksDto> findAllReadersWithOptionalBooks() {
+    var readerWithBooks = readerDao.findAllWithOptionalBooks();
+    return readerWithBooks.entrySet().stream()
+        .map(entry -> ReaderMapper.INSTANCE.readerToDto(entry.getKey(), entry.getValue()))
+        .toList();
+  }
+
   public List<BookWithReaderDto> findAllBooksWithReaders() {
     var bookWithReader = bookDao.findAllWithReaders();
     return bookWithReader.entrySet().stream()
@@ -90,4 +158,77 @@ public class LibraryService {
                 BookMapper.INSTANCE.bookToBookDto(entry.getKey(), entry.getValue()))
         .toList();
   }
+
+  public List<BookWithReaderDto> findAllBooksWithOptionalReaders() {
+    var bookWithReader = bookDao.findAllWithOptionalReaders();
+    return bookWithReader.entrySet().stream()
+        .map(entry -> BookMapper.INSTANCE.bookToBookDto(entry.getKey(), entry.getValue()))
+        .toList();
+  }
+
+  public void forEachBookWithReader(Consumer<BookWithReaderDto> action) {
+    bookDao.forEachWithReader(
+        (book, reader) -> action.accept(BookMapper.INSTANCE.bookToBookDto(book, reader)));
+  }
+
+  public void forEachBookWithOptionalReader(Consumer<BookWithReaderDto> action) {
+    bookDao.forEachWithOptionalReader(
+        (book, reader) -> action.accept(BookMapper.INSTANCE.bookToBookDto(book, reader)));
+  }
+
+  public List<CirculationResultDto> circulate(List<CirculationRequestDto> operations) {
+    var statuses = bookDao.circulateAll(operations);
+    List<CirculationResultDto> results = new ArrayList<>(operations.size());
+    for (int i = 0; i < operations.size(); i++) {
+      var operation = operations.get(i);
+      var status = statuses.get(i);
+      results.add(
+          new CirculationResultDto(
+              operation.getBookId(),
+              operation.getReaderId(),
+              operation.getOperation(),
+              status,
+              describe(status)));
+    }
+    if (statuses.contains(CirculationStatus.SUCCESS)) {
+      catalogVersion.increment();
+    }
+    return results;
+  }
+
+  private static <T> IdLookupDto<T> orderByRequest(
+      Set<Long> requestedIds, List<T> found, Function<T, Long> idGetter) {
+    Map<Long, T> foundById = new HashMap<>(found.size() * 4 / 3 + 1);
+    found.forEach(item -> foundById.put(idGetter.apply(item), item));
+    List<T> ordered = new ArrayList<>(found.size());
+    List<Long> missingIds = new ArrayList<>();
+    for (var id : requestedIds) {
+      var item = foundById.get(id);
+      if (item != null) {
+        ordered.add(item);
+      } else {
+        missingIds.add(id);
+      }
+    }
+    return new IdLookupDto<>(ordered, missingIds);
+  }
+
+  private static void requireSuccess(CirculationStatus status) {
+    switch (status) {
+      case SUCCESS -> {}
+      case VERSION_MISMATCH -> throw new BookVersionMismatchException(VERSION_MISMATCH);
+      default -> throw new LibraryServiceException(describe(status));
+    }
+  }
+
+  private static String describe(CirculationStatus status) {
+    return switch (status) {
+      case SUCCESS -> null;
+      case BOOK_NOT_FOUND -> BOOK_NOT_FOUND;
+      case READER_NOT_FOUND -> READER_NOT_FOUND;
+      case BOOK_ALREADY_BORROWED -> BOOK_ALREADY_BORROWED;
+      case BOOK_NOT_BORROWED -> BOOK_NOT_BORROWED;
+      case VERSION_MISMATCH -> VERSION_MISMATCH;
+    };
+  }
 }
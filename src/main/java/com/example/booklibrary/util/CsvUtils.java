@@ -0,0 +1,54 @@
+package com.example.booklibrary.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CsvUtils {
+  public static String toCsvRow(String... values) {
+    var row = new StringBuilder();
+    for (int i = 0; i < values.length; i++) {
+      if (i > 0) {
+        row.append(',');
+      }
+      if (values[i] != null) {
+        row.append('"').append(values[i].replace("\"", "\"\"")).append('"');
+      }
+    }
+    return row.append('\n').toString();
+  }
+
+  public static List<String> parseRow(String line) {
+    List<String> fields = new ArrayList<>();
+    var field = new StringBuilder();
+    var quoted = false;
+    var wasQuoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char current = line.charAt(i);
+      if (quoted) {
+        if (current != '"') {
+          field.append(current);
+        } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          field.append('"');
+          i++;
+        } else {
+          quoted = false;
+        }
+      } else if (current == '"') {
+        quoted = true;
+        wasQuoted = true;
+      } else if (current == ',') {
+        fields.add(toFieldValue(field, wasQuoted));
+        field.setLength(0);
+        wasQuoted = false;
+      } else {
+        field.append(current);
+      }
+    }
+    fields.add(toFieldValue(field, wasQuoted));
+    return fields;
+  }
+
+  private static String toFieldValue(StringBuilder field, boolean wasQuoted) {
+    return field.isEmpty() && !wasQuoted ? null : field.toString();
+  }
+}
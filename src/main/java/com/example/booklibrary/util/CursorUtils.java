@@ -0,0 +1,33 @@
+package com.example.booklibrary.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+
+public class CursorUtils {
+  private static final String SEPARATOR = ":";
+
+  public record Cursor(long afterId, String afterValue) {}
+
+  public static String encode(long afterId, String afterValue) {
+    var value = afterValue == null ? String.valueOf(afterId) : afterId + SEPARATOR + afterValue;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static Optional<Cursor> decode(String cursor) {
+    try {
+      var value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      var separator = value.indexOf(SEPARATOR);
+      var afterId = Long.parseLong(separator < 0 ? value : value.substring(0, separator));
+      if (afterId < 0) {
+        return Optional.empty();
+      }
+      return Optional.of(
+          new Cursor(afterId, separator < 0 ? null : value.substring(separator + 1)));
+    } catch (IllegalArgumentException ex) {
+      return Optional.empty();
+    }
+  }
+}
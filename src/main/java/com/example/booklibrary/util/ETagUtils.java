@@ -0,0 +1,31 @@
+package com.example.booklibrary.util;
+
+import java.util.OptionalLong;
+
+public class ETagUtils {
+  private static final String WEAK_PREFIX = "W/";
+
+  public static String toETag(long version) {
+    return "\"" + version + "\"";
+  }
+
+  public static String toWeakETag(String version) {
+    return WEAK_PREFIX + "\"" + version + "\"";
+  }
+
+  public static boolean isWeak(String eTag) {
+    return eTag.trim().startsWith(WEAK_PREFIX);
+  }
+
+  public static OptionalLong parseVersion(String eTag) {
+    var value = eTag.trim();
+    if (value.length() < 2 || value.charAt(0) != '"' || value.charAt(value.length() - 1) != '"') {
+      return OptionalLong.empty();
+    }
+    try {
+      return OptionalLong.of(Long.parseLong(value.substring(1, value.length() - 1)));
+    } catch (NumberFormatException ex) {
+      return OptionalLong.empty();
+    }
+  }
+}
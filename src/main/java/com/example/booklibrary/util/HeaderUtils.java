@@ -0,0 +1,19 @@
+package com.example.booklibrary.util;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.http.HttpHeaders;
+
+public class HeaderUtils {
+  public static final String MISSING_IDS_HEADER = "X-Missing-Ids";
+
+  public static HttpHeaders missingIdsHeader(List<Long> missingIds) {
+    var headers = new HttpHeaders();
+    if (!missingIds.isEmpty()) {
+      headers.add(
+          MISSING_IDS_HEADER,
+          missingIds.stream().map(String::valueOf).collect(Collectors.joining(",")));
+    }
+    return headers;
+  }
+}
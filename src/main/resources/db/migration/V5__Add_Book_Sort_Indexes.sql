@@ -0,0 +1,4 @@
+CREATE INDEX IF NOT EXISTS book_name_id_idx
+    ON book (name, id);
+CREATE INDEX IF NOT EXISTS book_author_name_id_idx
+    ON book (author, name, id);
@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS book_author_id_idx
+    ON book (author, id);
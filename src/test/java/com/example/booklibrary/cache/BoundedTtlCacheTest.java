@@ -0,0 +1,75 @@
+package com.example.booklibrary.cache;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class BoundedTtlCacheTest {
+  private final AtomicLong time = new AtomicLong();
+  private final BoundedTtlCache cache =
+      new BoundedTtlCache("books", 2, Duration.ofMinutes(1), time::get);
+
+  @Test
+  void getShouldCountHitsAndMisses() {
+    cache.put(1L, "Martin Eden");
+
+    assertThat(cache.get(1L)).isNotNull();
+    assertThat(cache.get(1L).get()).isEqualTo("Martin Eden");
+    assertThat(cache.get(2L)).isNull();
+    assertThat(cache.hitCount()).isEqualTo(2);
+    assertThat(cache.missCount()).isEqualTo(1);
+    assertThat(cache.putCount()).isEqualTo(1);
+  }
+
+  @Test
+  void putShouldEvictLeastRecentlyUsedEntryWhenFull() {
+    cache.put(1L, "Martin Eden");
+    cache.put(2L, "1984");
+    cache.get(1L);
+    cache.put(3L, "Glue");
+
+    assertThat(cache.get(2L)).isNull();
+    assertThat(cache.get(1L)).isNotNull();
+    assertThat(cache.get(3L)).isNotNull();
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.evictionCount()).isEqualTo(1);
+  }
+
+  @Test
+  void getShouldExpireEntriesAfterTtl() {
+    cache.put(1L, "Martin Eden");
+    time.addAndGet(Duration.ofSeconds(59).toNanos());
+    assertThat(cache.get(1L)).isNotNull();
+
+    time.addAndGet(Duration.ofSeconds(1).toNanos());
+
+    assertThat(cache.get(1L)).isNull();
+    assertThat(cache.size()).isZero();
+    assertThat(cache.evictionCount()).isEqualTo(1);
+  }
+
+  @Test
+  void getWithLoaderShouldLoadOnlyOnMiss() {
+    var loads = new AtomicLong();
+
+    cache.get(1L, () -> "Martin Eden " + loads.incrementAndGet());
+    var value = cache.get(1L, () -> "Martin Eden " + loads.incrementAndGet());
+
+    assertThat(value).isEqualTo("Martin Eden 1");
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  void evictAndClearShouldRemoveEntries() {
+    cache.put(1L, "Martin Eden");
+    cache.put(2L, "1984");
+
+    cache.evict(1L);
+    assertThat(cache.get(1L)).isNull();
+
+    cache.clear();
+    assertThat(cache.size()).isZero();
+  }
+}
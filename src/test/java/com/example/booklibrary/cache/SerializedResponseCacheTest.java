@@ -0,0 +1,133 @@
+package com.example.booklibrary.cache;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+class SerializedResponseCacheTest {
+  private final AtomicLong time = new AtomicLong();
+  private final AtomicReference<String> version = new AtomicReference<>("1");
+  private final AtomicInteger loads = new AtomicInteger();
+  private final SerializedResponseCache cache =
+      new SerializedResponseCache(
+          new ObjectMapper(), version::get, Duration.ofSeconds(30), time::get);
+
+  @Test
+  void getShouldServeSerializedBytesUntilVersionChanges() {
+    var first = cache.get("books", this::load);
+    var second = cache.get("books", this::load);
+
+    assertThat(new String(first, StandardCharsets.UTF_8)).isEqualTo("[\"Martin Eden\"]");
+    assertThat(second).isSameAs(first);
+    assertThat(loads).hasValue(1);
+
+    version.set("2");
+    cache.get("books", this::load);
+
+    assertThat(loads).hasValue(2);
+    assertThat(cache.hitCount()).isEqualTo(1);
+    assertThat(cache.missCount()).isEqualTo(2);
+  }
+
+  @Test
+  void getShouldReloadAfterMaxStaleness() {
+    cache.get("books", this::load);
+    time.addAndGet(Duration.ofSeconds(30).toNanos());
+    cache.get("books", this::load);
+
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  void getShouldKeepEntriesPerKey() {
+    var books = cache.get("books", this::load);
+    cache.get("readers", this::load);
+
+    assertThat(cache.get("books", this::load)).isSameAs(books);
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  void getShouldShareInFlightLoadAndNotBlockOtherKeys() throws Exception {
+    var loadStarted = new CountDownLatch(1);
+    var releaseLoad = new CountDownLatch(1);
+    var executor = Executors.newFixedThreadPool(2);
+    try {
+      var slow =
+          executor.submit(
+              () ->
+                  cache.get(
+                      "books",
+                      () -> {
+                        loadStarted.countDown();
+                        await(releaseLoad);
+                        return load();
+                      }));
+      assertThat(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+      var waiting = executor.submit(() -> cache.get("books", this::load));
+
+      var other = cache.get("readers", this::load);
+
+      assertThat(new String(other, StandardCharsets.UTF_8)).isEqualTo("[\"Martin Eden\"]");
+      releaseLoad.countDown();
+      assertThat(waiting.get(5, TimeUnit.SECONDS)).isSameAs(slow.get(5, TimeUnit.SECONDS));
+      assertThat(loads).hasValue(2);
+    } finally {
+      releaseLoad.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void getShouldNotCacheFailedLoads() {
+    assertThatThrownBy(
+            () ->
+                cache.get(
+                    "books",
+                    () -> {
+                      throw new IllegalStateException("Database is down");
+                    }))
+        .isInstanceOf(IllegalStateException.class);
+
+    cache.get("books", this::load);
+
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  void getShouldLoadEveryTimeWhenMaxStalenessIsZero() {
+    var uncached =
+        new SerializedResponseCache(new ObjectMapper(), version::get, Duration.ZERO, time::get);
+
+    var first = uncached.get("books", this::load);
+    var second = uncached.get("books", this::load);
+
+    assertThat(second).isEqualTo(first).isNotSameAs(first);
+    assertThat(loads).hasValue(2);
+    assertThat(uncached.missCount()).isEqualTo(2);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private List<String> load() {
+    loads.incrementAndGet();
+    return List.of("Martin Eden");
+  }
+}
@@ -0,0 +1,68 @@
+package com.example.booklibrary.controllers;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.example.booklibrary.cache.SerializedResponseCache;
+import com.example.booklibrary.dto.BookWithReaderDto;
+import com.example.booklibrary.entity.Reader;
+import com.example.booklibrary.service.BookImportService;
+import com.example.booklibrary.service.LibraryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(controllers = BookController.class)
+class BookControllerResponseCacheTest {
+  @Autowired MockMvc mockMvc;
+  @MockBean LibraryService libraryService;
+  @MockBean BookImportService bookImportService;
+
+  @TestConfiguration
+  static class ResponseCacheConfig {
+    @Bean
+    SerializedResponseCache serializedResponseCache(
+        ObjectMapper objectMapper, LibraryService libraryService) {
+      return new SerializedResponseCache(
+          objectMapper, libraryService::getCatalogVersion, Duration.ofSeconds(30));
+    }
+  }
+
+  @Test
+  void getBooksWithReadersShouldServeCachedBytesUntilCatalogChanges() throws Exception {
+    when(libraryService.getCatalogVersion()).thenReturn("1-0");
+    when(libraryService.findAllBooksWithReaders())
+        .thenReturn(
+            List.of(
+                BookWithReaderDto.builder()
+                    .id(1L)
+                    .name("Martin Eden")
+                    .author("Jack London")
+                    .reader(Reader.builder().id(1L).name("Jonny").build())
+                    .build()));
+
+    mockMvc
+        .perform(get("/api/v1/books/readers"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].name").value("Martin Eden"));
+    mockMvc
+        .perform(get("/api/v1/books/readers"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].reader.name").value("Jonny"));
+
+    verify(libraryService, times(1)).findAllBooksWithReaders();
+
+    when(libraryService.getCatalogVersion()).thenReturn("1-1");
+    mockMvc.perform(get("/api/v1/books/readers")).andExpect(status().isOk());
+
+    verify(libraryService, times(2)).findAllBooksWithReaders();
+  }
+}
@@ -4,13 +4,26 @@ import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.example.booklibrary.cache.SerializedResponseCache;
+import com.example.booklibrary.dao.CirculationStatus;
 import com.example.booklibrary.dto.BookDto;
+import com.example.booklibrary.dto.BookImportResultDto;
+import com.example.booklibrary.dto.BookSearchResultDto;
+import com.example.booklibrary.dto.BookSortKey;
+import com.example.booklibrary.dto.ImportChunkDto;
+import com.example.booklibrary.dto.ImportErrorDto;
 import com.example.booklibrary.dto.BookWithReaderDto;
+import com.example.booklibrary.dto.CirculationOperation;
+import com.example.booklibrary.dto.CirculationResultDto;
+import com.example.booklibrary.dto.IdLookupDto;
 import com.example.booklibrary.entity.Book;
 import com.example.booklibrary.entity.Reader;
+import com.example.booklibrary.exception.BookVersionMismatchException;
 import com.example.booklibrary.exception.ReaderNotFoundException;
+import com.example.booklibrary.service.BookImportService;
 import com.example.booklibrary.service.LibraryService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
@@ -21,10 +34,14 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -41,6 +58,15 @@ class BookControllerTest {
   @Autowired MockMvc mockMvc;
   @Autowired ObjectMapper objectMapper;
   @MockBean LibraryService libraryService;
+  @MockBean BookImportService bookImportService;
+
+  @TestConfiguration
+  static class ResponseCacheConfig {
+    @Bean
+    SerializedResponseCache serializedResponseCache(ObjectMapper objectMapper) {
+      return new SerializedResponseCache(objectMapper, () -> "0", Duration.ZERO);
+    }
+  }
 
   @Test
   void getBooksShouldReturnBookList() throws Exception {
@@ -67,6 +93,21 @@ class BookControllerTest {
         .andExpect(jsonPath("$[2].author").value(bookList.get(2).getAuthor()));
   }
 
+  @Test
+  void getBooksShouldReturnNotModifiedIfCatalogIsUnchanged() throws Exception {
+    when(libraryService.getCatalogVersion()).thenReturn("1-5");
+
+    mockMvc
+        .perform(get("/api/v1/books").header(HttpHeaders.IF_NONE_MATCH, "W/\"1-5\""))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, "W/\"1-5\""));
+    mockMvc
+        .perform(get("/api/v1/books").header(HttpHeaders.IF_NONE_MATCH, "W/\"1-4\""))
+        .andExpect(status().isOk());
+
+    verify(libraryService, times(1)).findAllBooks();
+  }
+
   @Test
   void getBooksShouldReturnEmptyList() throws Exception {
     List<BookDto> bookList = List.of();
@@ -79,6 +120,197 @@ class BookControllerTest {
         .andExpect(jsonPath("$.length()").value(0));
   }
 
+  @Test
+  void getBooksPageShouldReturnNextPageLink() throws Exception {
+    var bookList = List.of(new BookDto(3L, "Test3", "Test3"), new BookDto(4L, "Test4", "Test4"));
+
+    when(libraryService.findBooksPage(2L, 2)).thenReturn(bookList);
+
+    mockMvc
+        .perform(get("/api/v1/books").param("after", "2").param("limit", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(2))
+        .andExpect(jsonPath("$[0].id").value(3L))
+        .andExpect(jsonPath("$[1].id").value(4L))
+        .andExpect(header().string("X-Next-Cursor", "NA"))
+        .andExpect(
+            header().string("Link", "<http://localhost/api/v1/books?after=4&limit=2>; rel=\"next\""));
+
+    verify(libraryService, never()).findAllBooks();
+  }
+
+  @Test
+  void getBooksPageShouldNotReturnNextPageLinkOnLastPage() throws Exception {
+    var bookList = List.of(new BookDto(1L, "Test1", "Test1"));
+
+    when(libraryService.findBooksPage(0L, 2)).thenReturn(bookList);
+
+    mockMvc
+        .perform(get("/api/v1/books").param("limit", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(1))
+        .andExpect(header().doesNotExist("Link"))
+        .andExpect(header().doesNotExist("X-Next-Cursor"));
+  }
+
+  @Test
+  void getBooksFilteredShouldReturnNextPageLink() throws Exception {
+    var bookList =
+        List.of(
+            new BookDto(4L, "1984", "George Orwell"),
+            new BookDto(2L, "Animal Farm", "George Orwell"));
+
+    when(libraryService.findBooks(any())).thenReturn(bookList);
+
+    mockMvc
+        .perform(
+            get("/api/v1/books")
+                .queryParam("available", "true")
+                .queryParam("author", "George Orwell")
+                .queryParam("sort", "NAME")
+                .queryParam("limit", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(2))
+        .andExpect(
+            header()
+                .string(
+                    "Link",
+                    "<http://localhost/api/v1/books?available=true&author=George%20Orwell&sort=NAME"
+                        + "&after=2&limit=2&afterValue=Animal%20Farm>; rel=\"next\""))
+        .andExpect(header().string("X-Next-Cursor", "MjpBbmltYWwgRmFybQ"));
+
+    verify(libraryService)
+        .findBooks(
+            argThat(
+                query ->
+                    query.getAvailable()
+                        && query.getAuthor().equals("George Orwell")
+                        && query.getReaderId() == null
+                        && query.getSort() == BookSortKey.NAME
+                        && query.getAfterId() == 0L
+                        && query.getLimit() == 2));
+    verify(libraryService, never()).findBooksPage(anyLong(), anyInt());
+  }
+
+  @Test
+  void getBooksShouldContinueFromNextCursor() throws Exception {
+    when(libraryService.findBooks(any())).thenReturn(List.of());
+
+    mockMvc
+        .perform(
+            get("/api/v1/books")
+                .queryParam("sort", "NAME")
+                .queryParam("cursor", "MjpBbmltYWwgRmFybQ")
+                .queryParam("limit", "2"))
+        .andExpect(status().isOk());
+
+    verify(libraryService)
+        .findBooks(
+            argThat(
+                query ->
+                    query.getSort() == BookSortKey.NAME
+                        && query.getAfterId() == 2L
+                        && query.getAfterValue().equals("Animal Farm")
+                        && query.getLimit() == 2));
+  }
+
+  @Test
+  void getBooksShouldRejectInvalidCursor() throws Exception {
+    mockMvc
+        .perform(get("/api/v1/books").queryParam("sort", "NAME").queryParam("cursor", "2!"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.errorMessage").value("'cursor' is not a valid page cursor: 2!"));
+
+    verify(libraryService, never()).findBooks(any());
+  }
+
+  @Test
+  void searchBooksShouldReturnNextPageLink() throws Exception {
+    var results =
+        List.of(
+            new BookSearchResultDto(2L, "1984", "George Orwell", 2),
+            new BookSearchResultDto(7L, "Animal Farm", "George Orwell", 2));
+
+    when(libraryService.searchBooks("orwell", 1, 5L, 2)).thenReturn(results);
+
+    mockMvc
+        .perform(
+            get("/api/v1/books/search")
+                .queryParam("q", "orwell")
+                .queryParam("afterRank", "1")
+                .queryParam("after", "5")
+                .queryParam("limit", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(2))
+        .andExpect(jsonPath("$[0].id").value(2L))
+        .andExpect(jsonPath("$[0].rank").value(2))
+        .andExpect(
+            header()
+                .string(
+                    "Link",
+                    "<http://localhost/api/v1/books/search?q=orwell&afterRank=2&after=7&limit=2>;"
+                        + " rel=\"next\""));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"ab", "  a ", " ab  "})
+  void searchBooksShouldRejectShortQuery(String query) throws Exception {
+    mockMvc
+        .perform(get("/api/v1/books/search").param("q", query))
+        .andExpect(status().isBadRequest())
+        .andExpect(
+            jsonPath("$.errorMessage").value("Search query must be between 3 and 100 characters"));
+
+    verify(libraryService, never()).searchBooks(anyString(), anyInt(), anyLong(), anyInt());
+  }
+
+  @Test
+  void getBooksByIdsShouldReportMissingIds() throws Exception {
+    when(libraryService.findBooksByIds(List.of(3L, 1L, 99L)))
+        .thenReturn(
+            new IdLookupDto<>(
+                List.of(new BookDto(3L, "Test3", "Test3"), new BookDto(1L, "Test1", "Test1")),
+                List.of(99L)));
+
+    mockMvc
+        .perform(get("/api/v1/books").param("ids", "3,1,99"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(2))
+        .andExpect(jsonPath("$[0].id").value(3L))
+        .andExpect(jsonPath("$[1].id").value(1L))
+        .andExpect(header().string("X-Missing-Ids", "99"));
+
+    verify(libraryService, never()).findAllBooks();
+  }
+
+  @Test
+  void getBooksByIdsShouldRejectInvalidIds() throws Exception {
+    mockMvc
+        .perform(get("/api/v1/books").param("ids", "1,0"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.errorMessage").value("Book ID must be a positive number"));
+
+    verify(libraryService, never()).findBooksByIds(anyList());
+  }
+
+  @ParameterizedTest
+  @CsvSource(
+      delimiter = ';',
+      value = {
+        "0 ; 0 ; Page limit must be between 1 and 1000",
+        "0 ; 1001 ; Page limit must be between 1 and 1000",
+        "-1 ; 10 ; Cursor must not be negative"
+      })
+  void getBooksPageShouldThrowsExceptionIfInvalidArguments(
+      Long after, Integer limit, String expectedMessage) throws Exception {
+    mockMvc
+        .perform(get("/api/v1/books").param("after", after.toString()).param("limit", limit.toString()))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.errorMessage").value(expectedMessage));
+
+    verify(libraryService, never()).findBooksPage(anyLong(), anyInt());
+  }
+
   @Test
   void saveBook() throws Exception {
     var book = generateBook("Test name", "Test author");
@@ -174,6 +406,89 @@ class BookControllerTest {
     verify(libraryService, never()).addNewBook(book);
   }
 
+  @Test
+  void circulateBooks() throws Exception {
+    when(libraryService.circulate(anyList()))
+        .thenReturn(
+            List.of(
+                new CirculationResultDto(
+                    1L, 2L, CirculationOperation.BORROW, CirculationStatus.SUCCESS, null),
+                new CirculationResultDto(
+                    3L,
+                    null,
+                    CirculationOperation.RETURN,
+                    CirculationStatus.BOOK_NOT_FOUND,
+                    "This Book ID doesn't exist!")));
+
+    mockMvc
+        .perform(
+            post("/api/v1/books/circulation")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    """
+                    [
+                    {"operation": "BORROW", "bookId": 1, "readerId": 2},
+                    {"operation": "RETURN", "bookId": 3}
+                    ]
+                    """))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(2))
+        .andExpect(jsonPath("$[0].status").value("SUCCESS"))
+        .andExpect(jsonPath("$[1].status").value("BOOK_NOT_FOUND"))
+        .andExpect(jsonPath("$[1].errorMessage").value("This Book ID doesn't exist!"));
+
+    verify(libraryService, times(1)).circulate(anyList());
+  }
+
+  @ParameterizedTest
+  @CsvSource(
+      delimiter = ';',
+      value = {
+        "[] ; Circulation batch cannot be empty",
+        "[{\"operation\": \"BORROW\", \"bookId\": -1, \"readerId\": 2}] ; Book ID must be a positive number",
+        "[{\"bookId\": 1}] ; Operation cannot be null!"
+      })
+  void circulateBooksShouldThrowsExceptionIfInvalidArguments(String body, String errorMessage)
+      throws Exception {
+    mockMvc
+        .perform(
+            post("/api/v1/books/circulation").contentType(MediaType.APPLICATION_JSON).content(body))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.errorMessage").value(errorMessage));
+
+    verify(libraryService, never()).circulate(anyList());
+  }
+
+  @ParameterizedTest
+  @CsvSource(
+      delimiter = ';',
+      value = {
+        "application/json ; [{\"name\":\"Martin Eden\",\"author\":\"Jack London\"}]",
+        "application/x-ndjson ; {\"name\":\"Martin Eden\",\"author\":\"Jack London\"}"
+      })
+  void saveBooks(String contentType, String body) throws Exception {
+    var result =
+        new BookImportResultDto(
+            1,
+            1,
+            List.of(new ImportChunkDto(0, List.of(5L))),
+            List.of(new ImportErrorDto(1, "name", NAME_LENGTH_ERROR_MESSAGE, "x")));
+
+    when(bookImportService.importBooks(any())).thenReturn(result);
+
+    mockMvc
+        .perform(post("/api/v1/books/batch").contentType(contentType).content(body))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.imported").value(1))
+        .andExpect(jsonPath("$.rejected").value(1))
+        .andExpect(jsonPath("$.chunks[0].ids[0]").value(5L))
+        .andExpect(jsonPath("$.errors[0].item").value(1))
+        .andExpect(jsonPath("$.errors[0].field").value("name"))
+        .andExpect(jsonPath("$.errors[0].message").value(NAME_LENGTH_ERROR_MESSAGE));
+
+    verify(bookImportService, times(1)).importBooks(any());
+  }
+
   @Test
   void borrowBookToReader() throws Exception {
     var bookId = 1L;
@@ -188,6 +503,39 @@ class BookControllerTest {
     verify(libraryService, times(1)).borrowBook(bookId, readerId);
   }
 
+  @Test
+  void borrowBookToReaderIfMatch() throws Exception {
+    var bookId = 1L;
+    var readerId = 1L;
+
+    mockMvc
+        .perform(
+            post("/api/v1/books/{bookId}/readers/{readerId}", bookId, readerId)
+                .header(HttpHeaders.IF_MATCH, "\"3\""))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+
+    verify(libraryService, times(1)).borrowBook(bookId, readerId, 3L);
+    verify(libraryService, never()).borrowBook(bookId, readerId);
+  }
+
+  @Test
+  void borrowBookToReaderShouldReturnPreconditionFailedIfVersionDoesNotMatch() throws Exception {
+    var bookId = 1L;
+    var readerId = 1L;
+
+    doThrow(new BookVersionMismatchException("Book has been changed"))
+        .when(libraryService)
+        .borrowBook(bookId, readerId, 3L);
+
+    mockMvc
+        .perform(
+            post("/api/v1/books/{bookId}/readers/{readerId}", bookId, readerId)
+                .header(HttpHeaders.IF_MATCH, "\"3\""))
+        .andExpect(status().isPreconditionFailed())
+        .andExpect(jsonPath("$.errorMessage").value("Book has been changed"));
+  }
+
   @ParameterizedTest
   @CsvSource(
       delimiter = ';',
@@ -218,6 +566,60 @@ class BookControllerTest {
     verify(libraryService, times(1)).returnBookToLibrary(bookId);
   }
 
+  @Test
+  void returnBookIfMatch() throws Exception {
+    var bookId = 1L;
+
+    mockMvc
+        .perform(delete("/api/v1/books/{bookId}", bookId).header(HttpHeaders.IF_MATCH, "\"5\""))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"6\""));
+
+    verify(libraryService, times(1)).returnBookToLibrary(bookId, 5L);
+  }
+
+  @Test
+  void returnBookShouldReturnBadRequestIfETagIsInvalid() throws Exception {
+    var bookId = 1L;
+
+    mockMvc
+        .perform(delete("/api/v1/books/{bookId}", bookId).header(HttpHeaders.IF_MATCH, "abc"))
+        .andExpect(status().isBadRequest())
+        .andExpect(
+            jsonPath("$.errorMessage").value("'If-Match' does not contain a book ETag: abc"));
+
+    verifyNoInteractions(libraryService);
+  }
+
+  @Test
+  void returnBookShouldReturnPreconditionFailedIfETagIsWeak() throws Exception {
+    var bookId = 1L;
+
+    mockMvc
+        .perform(
+            delete("/api/v1/books/{bookId}", bookId).header(HttpHeaders.IF_MATCH, "W/\"5\""))
+        .andExpect(status().isPreconditionFailed());
+
+    verifyNoInteractions(libraryService);
+  }
+
+  @Test
+  void getBook() throws Exception {
+    var book = new Book(1L, "Test1", "Test1", null, 2L);
+
+    when(libraryService.findBookById(1L)).thenReturn(book);
+
+    mockMvc
+        .perform(get("/api/v1/books/{bookId}", 1L))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+        .andExpect(jsonPath("$.version").value(2));
+
+    mockMvc
+        .perform(get("/api/v1/books/{bookId}", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+        .andExpect(status().isNotModified());
+  }
+
   @Test
   void getReaderByBookId() throws Exception {
     var bookId = 1L;
@@ -285,6 +687,68 @@ class BookControllerTest {
             jsonPath("$[1].reader.name").value(booksWithReader.get(1).getReader().getName()));
   }
 
+  @Test
+  void getAllBooksWithReaderAsNdjson() throws Exception {
+    doAnswer(
+            invocation -> {
+              Consumer<BookWithReaderDto> action = invocation.getArgument(0);
+              action.accept(new BookWithReaderDto(1L, "Test1", "Test1", null));
+              action.accept(
+                  new BookWithReaderDto(
+                      2L, "Test2", "Test2", generateReaderWithId(2L, "Reader2")));
+              return null;
+            })
+        .when(libraryService)
+        .forEachBookWithOptionalReader(any());
+
+    mockMvc
+        .perform(
+            get("/api/v1/books/readers")
+                .param("scope", "ALL")
+                .accept(MediaType.APPLICATION_NDJSON))
+        .andExpect(status().isOk())
+        .andExpect(
+            content()
+                .string(
+                    """
+                    {"id":1,"author":"Test1","name":"Test1"}
+                    {"id":2,"author":"Test2","name":"Test2","reader":{"id":2,"name":"Reader2"}}
+                    """));
+
+    verify(libraryService, never()).forEachBookWithReader(any());
+  }
+
+  @Test
+  void getBooksWithReaderAsNdjson() throws Exception {
+    doAnswer(
+            invocation -> {
+              Consumer<BookWithReaderDto> action = invocation.getArgument(0);
+              action.accept(
+                  new BookWithReaderDto(
+                      1L, "Test1", "Test1", generateReaderWithId(1L, "Reader1")));
+              action.accept(
+                  new BookWithReaderDto(
+                      2L, "Test2", "Test2", generateReaderWithId(2L, "Reader2")));
+              return null;
+            })
+        .when(libraryService)
+        .forEachBookWithReader(any());
+
+    mockMvc
+        .perform(get("/api/v1/books/readers").accept(MediaType.APPLICATION_NDJSON))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+        .andExpect(
+            content()
+                .string(
+                    """
+                    {"id":1,"author":"Test1","name":"Test1","reader":{"id":1,"name":"Reader1"}}
+                    {"id":2,"author":"Test2","name":"Test2","reader":{"id":2,"name":"Reader2"}}
+                    """));
+
+    verify(libraryService, never()).findAllBooksWithReaders();
+  }
+
   private static Book generateBookWithId(Long id, String name, String author) {
     return Book.builder().id(id).name(name).author(author).build();
   }
@@ -0,0 +1,67 @@
+package com.example.booklibrary.controllers;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.example.booklibrary.dto.IngestReportDto;
+import com.example.booklibrary.service.BookImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(controllers = CatalogAdminController.class)
+class CatalogAdminControllerTest {
+  @Autowired MockMvc mockMvc;
+  @MockBean BookImportService bookImportService;
+
+  @Test
+  void ingestCsv() throws Exception {
+    when(bookImportService.ingestCsv(any(), eq(false)))
+        .thenReturn(new IngestReportDto(2, 4, 500.0));
+
+    mockMvc
+        .perform(
+            post("/api/v1/admin/books/ingest")
+                .param("header", "false")
+                .contentType("text/csv")
+                .content("\"Martin Eden\",\"Jack London\"\n\"Glue\",\"Irvine Welsh\"\n"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.rows").value(2))
+        .andExpect(jsonPath("$.millis").value(4))
+        .andExpect(jsonPath("$.rowsPerSecond").value(500.0));
+
+    verify(bookImportService, times(1)).ingestCsv(any(), eq(false));
+  }
+
+  @Test
+  void ingestNdjson() throws Exception {
+    when(bookImportService.ingestNdjson(any())).thenReturn(new IngestReportDto(1, 1, 1000.0));
+
+    mockMvc
+        .perform(
+            post("/api/v1/admin/books/ingest")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"name\": \"Martin Eden\", \"author\": \"Jack London\"}\n"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.rows").value(1));
+
+    verify(bookImportService, times(1)).ingestNdjson(any());
+  }
+
+  @Test
+  void ingestShouldRejectUnsupportedMediaType() throws Exception {
+    mockMvc
+        .perform(
+            post("/api/v1/admin/books/ingest")
+                .contentType(MediaType.APPLICATION_XML)
+                .content("<books/>"))
+        .andExpect(status().isUnsupportedMediaType());
+
+    verifyNoInteractions(bookImportService);
+  }
+}
@@ -5,12 +5,15 @@ import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.example.booklibrary.cache.SerializedResponseCache;
 import com.example.booklibrary.dto.BookDto;
+import com.example.booklibrary.dto.IdLookupDto;
 import com.example.booklibrary.dto.ReaderWithBooksDto;
 import com.example.booklibrary.entity.Reader;
 import com.example.booklibrary.service.LibraryService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.Collections;
+import java.time.Duration;
 import java.util.List;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
@@ -21,7 +24,10 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -37,6 +43,14 @@ class ReaderControllerTest {
   @Autowired ObjectMapper objectMapper;
   @MockBean LibraryService libraryService;
 
+  @TestConfiguration
+  static class ResponseCacheConfig {
+    @Bean
+    SerializedResponseCache serializedResponseCache(ObjectMapper objectMapper) {
+      return new SerializedResponseCache(objectMapper, () -> "0", Duration.ZERO);
+    }
+  }
+
   @Test
   void getReadersShouldReturnReaderList() throws Exception {
     var readerList =
@@ -59,6 +73,37 @@ class ReaderControllerTest {
         .andExpect(jsonPath("$[2].name").value("Andrew"));
   }
 
+  @Test
+  void getReadersByIdsShouldReportMissingIds() throws Exception {
+    when(libraryService.findReadersByIds(List.of(2L, 7L)))
+        .thenReturn(new IdLookupDto<>(List.of(generateReaderWithId(2L, "Alex")), List.of(7L)));
+
+    mockMvc
+        .perform(get("/api/v1/readers").param("ids", "2,7"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(1))
+        .andExpect(jsonPath("$[0].id").value(2L))
+        .andExpect(header().string("X-Missing-Ids", "7"));
+
+    verify(libraryService, never()).findAllReader();
+  }
+
+  @Test
+  void getReadersShouldReturnNotModifiedIfCatalogIsUnchanged() throws Exception {
+    when(libraryService.getCatalogVersion()).thenReturn("1-0");
+
+    mockMvc
+        .perform(get("/api/v1/readers"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "W/\"1-0\""));
+    mockMvc
+        .perform(get("/api/v1/readers").header(HttpHeaders.IF_NONE_MATCH, "W/\"1-0\""))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+
+    verify(libraryService, times(1)).findAllReader();
+  }
+
   @Test
   void getReadersShouldReturnEmptyList() throws Exception {
     List<Reader> readerList = List.of();
@@ -183,6 +228,26 @@ class ReaderControllerTest {
     verify(libraryService, never()).showBorrowedBooks(-1L);
   }
 
+  @Test
+  void getAllReadersWithBorrowedBooks() throws Exception {
+    List<ReaderWithBooksDto> readerWithBooks =
+        List.of(
+            new ReaderWithBooksDto(1L, "Reader1", Collections.emptyList()),
+            new ReaderWithBooksDto(
+                2L, "Reader2", Collections.singletonList(new BookDto(3L, "Book3", "Book3"))));
+
+    when(libraryService.findAllReadersWithOptionalBooks()).thenReturn(readerWithBooks);
+
+    mockMvc
+        .perform(get("/api/v1/readers/books").param("scope", "ALL"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(2))
+        .andExpect(jsonPath("$[0].books.length()").value(0))
+        .andExpect(jsonPath("$[1].books.length()").value(1));
+
+    verify(libraryService, never()).findAllReadersWithBooks();
+  }
+
   @Test
   void getReadersWithBorrowedBooks() throws Exception {
     List<ReaderWithBooksDto> readerWithBooks =
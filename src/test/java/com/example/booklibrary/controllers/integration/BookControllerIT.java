@@ -91,6 +91,37 @@ class BookControllerIT {
     assertThat(maybeBook).isNotPresent();
   }
 
+  @Test
+  void saveBooks() throws Exception {
+    var books =
+        """
+        {"name": "Martin Eden", "author": "Jack London"}
+        {"name": "x", "author": "Jack London"}
+        {"name": "1984", "author": "George Orwell"}
+        """;
+
+    var result =
+        mockMvc
+            .perform(
+                post("/api/v1/books/batch")
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .content(books))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(1))
+            .andExpect(jsonPath("$.rejected").value(2))
+            .andExpect(jsonPath("$.errors[0].item").value(1))
+            .andExpect(jsonPath("$.errors[0].field").value("name"))
+            .andExpect(jsonPath("$.errors[1].item").value(2))
+            .andReturn();
+
+    var importedId =
+        objectMapper
+            .readTree(result.getResponse().getContentAsString())
+            .at("/chunks/0/ids/0")
+            .asLong();
+    assertThat(bookDao.findById(importedId).get().getName()).isEqualTo("Martin Eden");
+  }
+
   @Test
   void borrowBook() throws Exception {
     var book = bookDao.save(generateBook("Martin Eden", "Jack London"));
@@ -104,6 +135,23 @@ class BookControllerIT {
     assertThat(maybeBook.get().getReaderId()).isEqualTo(reader.getId());
   }
 
+  @Test
+  void borrowBookIfBookIsBorrowed() throws Exception {
+    var book = bookDao.save(generateBook("Martin Eden", "Jack London"));
+    var reader1 = readerDao.save(generateReader("Jonny"));
+    var reader2 = readerDao.save(generateReader("Yevhenii"));
+
+    bookDao.borrow(book.getId(), reader1.getId());
+
+    mockMvc
+        .perform(post("/api/v1/books/{bookId}/readers/{readerId}", book.getId(), reader2.getId()))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.errorMessage").value("Cannot borrow already borrowed Book!"));
+
+    Optional<Book> maybeBook = bookDao.findById(book.getId());
+    assertThat(maybeBook.get().getReaderId()).isEqualTo(reader1.getId());
+  }
+
   @Test
   void returnBook() throws Exception {
     var book = bookDao.save(generateBook("Martin Eden", "Jack London"));
@@ -3,21 +3,45 @@ package com.example.booklibrary.dao;
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.example.booklibrary.config.CachingConfig;
 import com.example.booklibrary.dao.annotation.DaoIT;
 import com.example.booklibrary.dto.BookDto;
+import com.example.booklibrary.dto.BookQueryDto;
+import com.example.booklibrary.dto.BookSearchResultDto;
+import com.example.booklibrary.dto.BookSortKey;
+import com.example.booklibrary.dto.CirculationOperation;
+import com.example.booklibrary.dto.CirculationRequestDto;
 import com.example.booklibrary.entity.Book;
 import com.example.booklibrary.entity.Reader;
+import java.io.StringReader;
 import java.util.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 @DaoIT
+@Import(BookDaoIT.CacheTestConfig.class)
 class BookDaoIT {
   @Autowired private BookDao bookDao;
   @Autowired private ReaderDao readerDao;
   @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private CacheManager cacheManager;
+
+  @TestConfiguration
+  static class CacheTestConfig {
+    @Bean
+    CacheManager cacheManager() {
+      return new ConcurrentMapCacheManager(CachingConfig.BOOKS_CACHE);
+    }
+  }
 
   @BeforeEach
   void cleanData() {
@@ -39,6 +63,43 @@ class BookDaoIT {
         () -> assertThat(actualBook.get().getAuthor()).isEqualTo(bookToSave.getAuthor()));
   }
 
+  @Test
+  void saveAll() {
+    var booksToSave =
+        new ArrayList<>(
+            List.of(
+                generateBook("Test1", "Test1"),
+                generateBook("Test2", "Test2"),
+                generateBook("Test3", "Test3")));
+
+    List<Book> savedBooks = bookDao.saveAll(booksToSave);
+
+    assertThat(savedBooks).hasSize(3).allSatisfy(book -> assertThat(book.getId()).isNotNull());
+    assertThat(savedBooks).extracting(Book::getId).doesNotHaveDuplicates();
+    savedBooks.forEach(
+        book -> assertThat(bookDao.findById(book.getId()).get().getName()).isEqualTo(book.getName()));
+  }
+
+  @Test
+  void copyFromCsv() {
+    var csvBooks =
+        """
+        "Martin Eden","Jack London"
+        "Bread, Wine",""
+        "The ""Iron"" Heel",Jack London
+        """;
+
+    var rows = bookDao.copyFromCsv(new StringReader(csvBooks));
+
+    assertThat(rows).isEqualTo(3);
+    assertThat(bookDao.findAll())
+        .extracting(BookDto::getName, BookDto::getAuthor)
+        .containsExactlyInAnyOrder(
+            tuple("Martin Eden", "Jack London"),
+            tuple("Bread, Wine", ""),
+            tuple("The \"Iron\" Heel", "Jack London"));
+  }
+
   @Test
   void findAll() {
     var book1 = bookDao.save(generateBook("Test1", "Test1"));
@@ -57,6 +118,139 @@ class BookDaoIT {
         () -> assertThat(actualBooks.get(2).getName()).isEqualTo(book3.getName()));
   }
 
+  @Test
+  void findAllByIds() {
+    var book1 = bookDao.save(generateBook("Test1", "Test1"));
+    bookDao.save(generateBook("Test2", "Test2"));
+    var book3 = bookDao.save(generateBook("Test3", "Test3"));
+
+    List<BookDto> actualBooks = bookDao.findAllByIds(List.of(book3.getId(), book1.getId(), -1L));
+
+    assertThat(actualBooks)
+        .extracting(BookDto::getId)
+        .containsExactlyInAnyOrder(book1.getId(), book3.getId());
+    assertThat(bookDao.findAllByIds(List.of())).isEmpty();
+  }
+
+  @Test
+  void findAllMatching() {
+    var reader = readerDao.save(generateReader("Test1"));
+    var book1 = bookDao.save(generateBook("Nineteen Eighty-Four", "George Orwell"));
+    var book2 = bookDao.save(generateBook("Animal Farm", "George Orwell"));
+    var book3 = bookDao.save(generateBook("Burmese Days", "George Orwell"));
+    var book4 = bookDao.save(generateBook("Glue", "Irvine Welsh"));
+    bookDao.borrow(book3.getId(), reader.getId());
+    bookDao.borrow(book4.getId(), reader.getId());
+
+    var available =
+        bookDao.findAllMatching(
+            BookQueryDto.builder()
+                .available(true)
+                .author("George Orwell")
+                .sort(BookSortKey.NAME)
+                .limit(10)
+                .build());
+    var borrowed =
+        bookDao.findAllMatching(
+            BookQueryDto.builder().readerId(reader.getId()).limit(10).build());
+
+    assertAll(
+        () ->
+            assertThat(available)
+                .extracting(BookDto::getId)
+                .containsExactly(book2.getId(), book1.getId()),
+        () ->
+            assertThat(borrowed)
+                .extracting(BookDto::getId)
+                .containsExactly(book3.getId(), book4.getId()));
+  }
+
+  @Test
+  void findAllMatchingShouldPageBySortKey() {
+    var book1 = bookDao.save(generateBook("Same", "Author B"));
+    var book2 = bookDao.save(generateBook("Other", "Author A"));
+    var book3 = bookDao.save(generateBook("Same", "Author A"));
+
+    var firstPage =
+        bookDao.findAllMatching(BookQueryDto.builder().sort(BookSortKey.NAME).limit(2).build());
+    var last = firstPage.get(1);
+    var secondPage =
+        bookDao.findAllMatching(
+            BookQueryDto.builder()
+                .sort(BookSortKey.NAME)
+                .afterId(last.getId())
+                .afterValue(last.getName())
+                .limit(2)
+                .build());
+
+    assertAll(
+        () ->
+            assertThat(firstPage)
+                .extracting(BookDto::getId)
+                .containsExactly(book2.getId(), book1.getId()),
+        () ->
+            assertThat(secondPage).extracting(BookDto::getId).containsExactly(book3.getId()));
+  }
+
+  @Test
+  void search() {
+    var byAuthor = bookDao.save(generateBook("Animal Farm", "Orwell, George"));
+    var exact = bookDao.save(generateBook("Orwell", "Unknown"));
+    var byNamePrefix = bookDao.save(generateBook("Orwell's Essays", "George Orwell"));
+    var byContains = bookDao.save(generateBook("Reading ORWELL today", "Someone"));
+    bookDao.save(generateBook("Glue", "Irvine Welsh"));
+
+    List<BookSearchResultDto> firstPage = bookDao.search("orwell", 0, 0L, 2);
+    var last = firstPage.get(1);
+    List<BookSearchResultDto> secondPage =
+        bookDao.search("orwell", last.getRank(), last.getId(), 2);
+
+    assertAll(
+        () ->
+            assertThat(firstPage)
+                .extracting(BookSearchResultDto::getId)
+                .containsExactly(exact.getId(), byNamePrefix.getId()),
+        () ->
+            assertThat(firstPage).extracting(BookSearchResultDto::getRank).containsExactly(0, 1),
+        () ->
+            assertThat(secondPage)
+                .extracting(BookSearchResultDto::getId)
+                .containsExactly(byAuthor.getId(), byContains.getId()));
+  }
+
+  @Test
+  void searchShouldTreatWildcardsLiterally() {
+    var book = bookDao.save(generateBook("100% Pure", "Test1"));
+    bookDao.save(generateBook("1000 Pure", "Test2"));
+
+    List<BookSearchResultDto> actualBooks = bookDao.search("0%", 0, 0L, 10);
+
+    assertThat(actualBooks).extracting(BookSearchResultDto::getId).containsExactly(book.getId());
+  }
+
+  @Test
+  void findAllAfter() {
+    var book1 = bookDao.save(generateBook("Test1", "Test1"));
+    var book2 = bookDao.save(generateBook("Test2", "Test2"));
+    var book3 = bookDao.save(generateBook("Test3", "Test3"));
+    var book4 = bookDao.save(generateBook("Test4", "Test4"));
+
+    List<BookDto> firstPage = bookDao.findAllAfter(0L, 2);
+    List<BookDto> secondPage = bookDao.findAllAfter(firstPage.get(1).getId(), 2);
+    List<BookDto> lastPage = bookDao.findAllAfter(book4.getId(), 2);
+
+    assertAll(
+        () ->
+            assertThat(firstPage)
+                .extracting(BookDto::getId)
+                .containsExactly(book1.getId(), book2.getId()),
+        () ->
+            assertThat(secondPage)
+                .extracting(BookDto::getId)
+                .containsExactly(book3.getId(), book4.getId()),
+        () -> assertThat(lastPage).isEmpty());
+  }
+
   @Test
   void findAllByReaderId() {
     var book1 = bookDao.save(generateBook("Test1", "Test1"));
@@ -115,6 +309,127 @@ class BookDaoIT {
         () -> assertThat(actualMap).doesNotContainKey(book3));
   }
 
+  @Test
+  void tryBorrow() {
+    var book = bookDao.save(generateBook("Test1", "Test1"));
+    var reader = readerDao.save(generateReader("Test1"));
+
+    var status = bookDao.tryBorrow(book.getId(), reader.getId());
+
+    assertThat(status).isEqualTo(CirculationStatus.SUCCESS);
+    assertThat(bookDao.findById(book.getId()).get().getReaderId()).isEqualTo(reader.getId());
+  }
+
+  @Test
+  void tryBorrowIfBookIsNotFound() {
+    var reader = readerDao.save(generateReader("Test1"));
+
+    var status = bookDao.tryBorrow(99999L, reader.getId());
+
+    assertThat(status).isEqualTo(CirculationStatus.BOOK_NOT_FOUND);
+  }
+
+  @Test
+  void tryBorrowIfReaderIsNotFound() {
+    var book = bookDao.save(generateBook("Test1", "Test1"));
+
+    var status = bookDao.tryBorrow(book.getId(), 99999L);
+
+    assertThat(status).isEqualTo(CirculationStatus.READER_NOT_FOUND);
+    assertThat(bookDao.findById(book.getId()).get().getReaderId()).isNull();
+  }
+
+  @Test
+  void tryBorrowIfBookIsBorrowed() {
+    var book = bookDao.save(generateBook("Test1", "Test1"));
+    var reader1 = readerDao.save(generateReader("Test1"));
+    var reader2 = readerDao.save(generateReader("Test2"));
+    bookDao.borrow(book.getId(), reader1.getId());
+
+    var status = bookDao.tryBorrow(book.getId(), reader2.getId());
+
+    assertThat(status).isEqualTo(CirculationStatus.BOOK_ALREADY_BORROWED);
+    assertThat(bookDao.findById(book.getId()).get().getReaderId()).isEqualTo(reader1.getId());
+  }
+
+  @Test
+  void tryBorrowWithVersion() {
+    var book = bookDao.save(generateBook("Test1", "Test1"));
+    var reader = readerDao.save(generateReader("Test1"));
+
+    var status = bookDao.tryBorrow(book.getId(), reader.getId(), 0L);
+
+    assertThat(status).isEqualTo(CirculationStatus.SUCCESS);
+    var actualBook = bookDao.findById(book.getId()).get();
+    assertThat(actualBook.getReaderId()).isEqualTo(reader.getId());
+    assertThat(actualBook.getVersion()).isEqualTo(1L);
+  }
+
+  @Test
+  void tryBorrowIfVersionDoesNotMatch() {
+    var book = bookDao.save(generateBook("Test1", "Test1"));
+    var reader = readerDao.save(generateReader("Test1"));
+    bookDao.borrow(book.getId(), reader.getId());
+    bookDao.returnBook(book.getId());
+
+    var status = bookDao.tryBorrow(book.getId(), reader.getId(), 0L);
+
+    assertThat(status).isEqualTo(CirculationStatus.VERSION_MISMATCH);
+    assertThat(bookDao.findById(book.getId()).get().getReaderId()).isNull();
+  }
+
+  @Test
+  void circulateAll() {
+    var book1 = bookDao.save(generateBook("Test1", "Test1"));
+    var book2 = bookDao.save(generateBook("Test2", "Test2"));
+    var reader = readerDao.save(generateReader("Test1"));
+    bookDao.borrow(book2.getId(), reader.getId());
+
+    var statuses =
+        bookDao.circulateAll(
+            List.of(
+                new CirculationRequestDto(
+                    CirculationOperation.BORROW, book1.getId(), reader.getId()),
+                new CirculationRequestDto(CirculationOperation.RETURN, book2.getId(), null),
+                new CirculationRequestDto(CirculationOperation.RETURN, book2.getId(), null),
+                new CirculationRequestDto(CirculationOperation.BORROW, book1.getId(), 99999L),
+                new CirculationRequestDto(CirculationOperation.BORROW, 99999L, reader.getId()),
+                new CirculationRequestDto(
+                    CirculationOperation.BORROW, book2.getId(), reader.getId())));
+
+    assertThat(statuses)
+        .containsExactly(
+            CirculationStatus.SUCCESS,
+            CirculationStatus.SUCCESS,
+            CirculationStatus.BOOK_NOT_BORROWED,
+            CirculationStatus.READER_NOT_FOUND,
+            CirculationStatus.BOOK_NOT_FOUND,
+            CirculationStatus.SUCCESS);
+    assertThat(bookDao.findById(book1.getId()).get().getReaderId()).isEqualTo(reader.getId());
+    var actualBook2 = bookDao.findById(book2.getId()).get();
+    assertThat(actualBook2.getReaderId()).isEqualTo(reader.getId());
+    assertThat(actualBook2.getVersion()).isEqualTo(3L);
+  }
+
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void circulateAllShouldEvictOnlyCirculatedBooksAfterCommit() {
+    var book1 = bookDao.save(generateBook("Test1", "Test1"));
+    var book2 = bookDao.save(generateBook("Test2", "Test2"));
+    var reader = readerDao.save(generateReader("Test1"));
+    var booksCache = cacheManager.getCache(CachingConfig.BOOKS_CACHE);
+    booksCache.put(book1.getId(), book1);
+    booksCache.put(book2.getId(), book2);
+
+    bookDao.circulateAll(
+        List.of(
+            new CirculationRequestDto(CirculationOperation.BORROW, book1.getId(), reader.getId()),
+            new CirculationRequestDto(CirculationOperation.RETURN, book2.getId(), null)));
+
+    assertThat(booksCache.get(book1.getId())).isNull();
+    assertThat(booksCache.get(book2.getId())).isNotNull();
+  }
+
   @Test
   void returnBook() {
     var book = bookDao.save(generateBook("Test1", "Test1"));
@@ -130,6 +445,111 @@ class BookDaoIT {
     assertThat(returnedBook.get().getReaderId()).isNull();
   }
 
+  @Test
+  void tryReturn() {
+    var book = bookDao.save(generateBook("Test1", "Test1"));
+    var reader = readerDao.save(generateReader("Test1"));
+    bookDao.borrow(book.getId(), reader.getId());
+
+    var status = bookDao.tryReturn(book.getId());
+
+    assertThat(status).isEqualTo(CirculationStatus.SUCCESS);
+    assertThat(bookDao.findById(book.getId()).get().getReaderId()).isNull();
+  }
+
+  @Test
+  void tryReturnIfVersionDoesNotMatch() {
+    var book = bookDao.save(generateBook("Test1", "Test1"));
+    var reader = readerDao.save(generateReader("Test1"));
+    bookDao.tryBorrow(book.getId(), reader.getId());
+
+    var status = bookDao.tryReturn(book.getId(), 0L);
+
+    assertThat(status).isEqualTo(CirculationStatus.VERSION_MISMATCH);
+    assertThat(bookDao.tryReturn(book.getId(), 1L)).isEqualTo(CirculationStatus.SUCCESS);
+    assertThat(bookDao.findById(book.getId()).get().getVersion()).isEqualTo(2L);
+  }
+
+  @Test
+  void tryReturnIfBookIsNotBorrowed() {
+    var book = bookDao.save(generateBook("Test1", "Test1"));
+
+    var status = bookDao.tryReturn(book.getId());
+
+    assertThat(status).isEqualTo(CirculationStatus.BOOK_NOT_BORROWED);
+  }
+
+  @Test
+  void tryReturnIfBookIsNotFound() {
+    var status = bookDao.tryReturn(99999L);
+
+    assertThat(status).isEqualTo(CirculationStatus.BOOK_NOT_FOUND);
+  }
+
+  @Test
+  void forEachWithReader() {
+    var book1 = bookDao.save(generateBook("Test1", "Test1"));
+    var book2 = bookDao.save(generateBook("Test2", "Test2"));
+    bookDao.save(generateBook("Test3", "Test3"));
+    var reader = readerDao.save(generateReader("Reader1"));
+    bookDao.borrow(book1.getId(), reader.getId());
+    bookDao.borrow(book2.getId(), reader.getId());
+    Map<Book, Reader> streamed = new HashMap<>();
+
+    bookDao.forEachWithReader(streamed::put);
+
+    assertThat(streamed).isEqualTo(bookDao.findAllWithReaders());
+    assertThat(streamed.keySet())
+        .extracting(Book::getId)
+        .containsExactlyInAnyOrder(book1.getId(), book2.getId());
+  }
+
+  @Test
+  void findAllWithOptionalReaders() {
+    var book1 = bookDao.save(generateBook("Test1", "Test1"));
+    var book2 = bookDao.save(generateBook("Test2", "Test2"));
+    var reader = readerDao.save(generateReader("Reader1"));
+    bookDao.borrow(book2.getId(), reader.getId());
+    Map<Book, Reader> streamed = new LinkedHashMap<>();
+
+    Map<Book, Reader> actualMap = bookDao.findAllWithOptionalReaders();
+    bookDao.forEachWithOptionalReader(streamed::put);
+
+    assertThat(actualMap.keySet())
+        .extracting(Book::getId)
+        .containsExactly(book1.getId(), book2.getId());
+    assertThat(new ArrayList<>(actualMap.values())).containsExactly(null, reader);
+    assertThat(streamed).isEqualTo(actualMap);
+  }
+
+  @Test
+  void findAllByReaderIdShouldUseReaderIndex() {
+    var plan =
+        jdbcTemplate.queryForObject(
+            "EXPLAIN SELECT id, name, author FROM book WHERE reader_id = ?", String.class, 1L);
+
+    assertThat(plan).containsIgnoringCase("book_reader_id_idx");
+  }
+
+  @Test
+  void findAllMatchingByAuthorSortedByNameShouldUseAuthorNameIndex() {
+    var plan =
+        jdbcTemplate.queryForObject(
+            """
+                EXPLAIN SELECT id, name, author FROM book
+                  WHERE reader_id IS NULL AND author = ? AND (name, id) > (?, ?)
+                  ORDER BY name, id
+                  LIMIT ?
+                """,
+            String.class,
+            "Jack London",
+            "Martin Eden",
+            1L,
+            10);
+
+    assertThat(plan).containsIgnoringCase("book_author_name_id_idx");
+  }
+
   private static Book generateBook(String name, String author) {
     return Book.builder().name(name).author(author).build();
   }
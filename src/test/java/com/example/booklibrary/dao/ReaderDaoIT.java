@@ -56,6 +56,21 @@ class ReaderDaoIT {
         () -> assertThat(actualReaders.get(2).getName()).isEqualTo(reader3.getName()));
   }
 
+  @Test
+  void findAllByIds() {
+    var reader1 = readerDao.save(generateReader("Test1"));
+    var reader2 = readerDao.save(generateReader("Test2"));
+    readerDao.save(generateReader("Test3"));
+
+    List<Reader> actualReaders =
+        readerDao.findAllByIds(List.of(reader2.getId(), reader1.getId(), -1L));
+
+    assertThat(actualReaders)
+        .extracting(Reader::getId)
+        .containsExactlyInAnyOrder(reader1.getId(), reader2.getId());
+    assertThat(readerDao.findAllByIds(List.of())).isEmpty();
+  }
+
   @Test
   void findAllWithBooks() {
     var book1 = bookDao.save(generateBook("Test1", "Test1"));
@@ -92,6 +107,45 @@ class ReaderDaoIT {
                 assertThat(books).containsExactlyInAnyOrderElementsOf(expectedMap.get(reader)));
   }
 
+  @Test
+  void findAllWithOptionalBooks() {
+    var book1 = bookDao.save(generateBook("Test1", "Test1"));
+    bookDao.save(generateBook("Test2", "Test2"));
+    var reader1 = readerDao.save(generateReader("Test1"));
+    var reader2 = readerDao.save(generateReader("Test2"));
+    bookDao.borrow(book1.getId(), reader2.getId());
+
+    Map<Reader, List<BookDto>> actualMap = readerDao.findAllWithOptionalBooks();
+
+    assertThat(actualMap.keySet()).containsExactly(reader1, reader2);
+    assertAll(
+        () -> assertThat(actualMap.get(reader1)).isEmpty(),
+        () ->
+            assertThat(actualMap.get(reader2))
+                .containsExactly(new BookDto(book1.getId(), book1.getName(), book1.getAuthor())));
+  }
+
+  @Test
+  void findAllWithBooksShouldBeOrderedByReaderAndBookId() {
+    var reader1 = readerDao.save(generateReader("Test1"));
+    var reader2 = readerDao.save(generateReader("Test2"));
+    var book1 = bookDao.save(generateBook("Test1", "Test1"));
+    var book2 = bookDao.save(generateBook("Test2", "Test2"));
+    var book3 = bookDao.save(generateBook("Test3", "Test3"));
+
+    bookDao.borrow(book3.getId(), reader2.getId());
+    bookDao.borrow(book2.getId(), reader1.getId());
+    bookDao.borrow(book1.getId(), reader2.getId());
+
+    Map<Reader, List<BookDto>> actualMap = readerDao.findAllWithBooks();
+
+    assertThat(actualMap.keySet()).containsExactly(reader1, reader2);
+    assertThat(actualMap.get(reader1)).extracting(BookDto::getId).containsExactly(book2.getId());
+    assertThat(actualMap.get(reader2))
+        .extracting(BookDto::getId)
+        .containsExactly(book1.getId(), book3.getId());
+  }
+
   @Test
   void findReaderByBookId() {
     var book = bookDao.save(generateBook("Test1", "Test1"));
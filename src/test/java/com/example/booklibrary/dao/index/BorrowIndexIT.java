@@ -0,0 +1,207 @@
+package com.example.booklibrary.dao.index;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.example.booklibrary.dao.BookDao;
+import com.example.booklibrary.dao.ReaderDao;
+import com.example.booklibrary.dao.annotation.DaoIT;
+import com.example.booklibrary.dto.BookDto;
+import com.example.booklibrary.dto.CirculationOperation;
+import com.example.booklibrary.dto.CirculationRequestDto;
+import com.example.booklibrary.entity.Book;
+import com.example.booklibrary.entity.Reader;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@DaoIT
+@TestPropertySource(properties = "library.borrow-index.enabled=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BorrowIndexIT {
+  @Autowired BorrowIndex borrowIndex;
+  @Autowired BookDao bookDao;
+  @Autowired ReaderDao readerDao;
+  @Autowired JdbcTemplate jdbcTemplate;
+  @Autowired PlatformTransactionManager transactionManager;
+
+  @BeforeEach
+  void cleanData() {
+    jdbcTemplate.execute("DELETE FROM book");
+    jdbcTemplate.execute("DELETE FROM reader");
+    borrowIndex.warmUp();
+  }
+
+  @Test
+  void warmUpShouldIndexExistingLoans() {
+    var book = bookDao.save(generateBook("Martin Eden", "Jack London"));
+    var reader = readerDao.save(generateReader("Jonny"));
+    jdbcTemplate.update("UPDATE book SET reader_id = ? WHERE id = ?", reader.getId(), book.getId());
+
+    borrowIndex.warmUp();
+
+    assertThat(readerDao.findReaderByBookId(book.getId())).contains(reader);
+    assertThat(bookDao.findAllByReaderId(reader.getId()))
+        .containsExactly(new BookDto(book.getId(), book.getName(), book.getAuthor()));
+  }
+
+  @Test
+  void borrowAndReturnShouldKeepIndexCurrent() {
+    var book1 = bookDao.save(generateBook("Martin Eden", "Jack London"));
+    var book2 = bookDao.save(generateBook("Nineteen Eighty-Four", "George Orwell"));
+    var reader = readerDao.save(generateReader("Jonny"));
+
+    bookDao.tryBorrow(book1.getId(), reader.getId());
+    bookDao.borrow(book2.getId(), reader.getId());
+
+    assertThat(bookDao.findAllByReaderId(reader.getId()))
+        .extracting(BookDto::getId)
+        .containsExactly(book1.getId(), book2.getId());
+    assertThat(readerDao.findAllWithBooks()).containsOnlyKeys(reader);
+    assertThat(bookDao.findAllWithReaders())
+        .containsOnlyKeys(
+            new Book(book1.getId(), book1.getName(), book1.getAuthor(), reader.getId(), null),
+            new Book(book2.getId(), book2.getName(), book2.getAuthor(), reader.getId(), null));
+
+    bookDao.tryReturn(book1.getId());
+    bookDao.returnBook(book2.getId());
+
+    assertThat(bookDao.findAllByReaderId(reader.getId())).isEmpty();
+    assertThat(readerDao.findReaderByBookId(book1.getId())).isEmpty();
+    assertThat(readerDao.findAllWithBooks()).isEmpty();
+    assertThat(bookDao.findAllWithReaders()).isEmpty();
+  }
+
+  @Test
+  void circulateAllShouldUpdateIndexAfterCommit() {
+    var book1 = bookDao.save(generateBook("Martin Eden", "Jack London"));
+    var book2 = bookDao.save(generateBook("Glue", "Irvine Welsh"));
+    var reader = readerDao.save(generateReader("Jonny"));
+    bookDao.tryBorrow(book2.getId(), reader.getId());
+
+    bookDao.circulateAll(
+        List.of(
+            new CirculationRequestDto(CirculationOperation.BORROW, book1.getId(), reader.getId()),
+            new CirculationRequestDto(CirculationOperation.RETURN, book2.getId(), null)));
+
+    assertThat(bookDao.findAllByReaderId(reader.getId()))
+        .extracting(BookDto::getId)
+        .containsExactly(book1.getId());
+    assertThat(readerDao.findReaderByBookId(book2.getId())).isEmpty();
+  }
+
+  @Test
+  void lateBorrowShouldNotOverrideNewerReturn() {
+    var book = bookDao.save(generateBook("Martin Eden", "Jack London"));
+    var reader = readerDao.save(generateReader("Jonny"));
+    bookDao.tryBorrow(book.getId(), reader.getId());
+    bookDao.tryReturn(book.getId());
+
+    borrowIndex.onBorrow(
+        new BookDto(book.getId(), book.getName(), book.getAuthor()), reader.getId(), 1L);
+
+    assertThat(readerDao.findReaderByBookId(book.getId())).isEmpty();
+    assertThat(bookDao.findAllByReaderId(reader.getId())).isEmpty();
+  }
+
+  @Test
+  void rolledBackBorrowShouldNotChangeIndex() {
+    var book = bookDao.save(generateBook("Martin Eden", "Jack London"));
+    var reader = readerDao.save(generateReader("Jonny"));
+
+    new TransactionTemplate(transactionManager)
+        .executeWithoutResult(
+            status -> {
+              bookDao.tryBorrow(book.getId(), reader.getId());
+              status.setRollbackOnly();
+            });
+
+    assertThat(readerDao.findReaderByBookId(book.getId())).isEmpty();
+  }
+
+  @Test
+  void failedIndexUpdateShouldFallBackToDatabaseUntilWarmedUpAgain()
+      throws InterruptedException {
+    var book = bookDao.save(generateBook("Martin Eden", "Jack London"));
+    var reader = readerDao.save(generateReader("Jonny"));
+    bookDao.tryBorrow(book.getId(), reader.getId());
+
+    borrowIndex.onBorrow(new BookDto(book.getId(), book.getName(), book.getAuthor()), -1L, 2L);
+
+    assertThat(readerDao.findReaderByBookId(book.getId())).contains(reader);
+    var deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    while (!borrowIndex.isCurrent() && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(borrowIndex.isCurrent()).isTrue();
+    assertThat(readerDao.findReaderByBookId(book.getId())).contains(reader);
+  }
+
+  @Test
+  void forEachWithReaderShouldStreamIndexedLoans() {
+    var book1 = bookDao.save(generateBook("Martin Eden", "Jack London"));
+    var book2 = bookDao.save(generateBook("Glue", "Irvine Welsh"));
+    bookDao.save(generateBook("Home", "Tony Morrison"));
+    var reader = readerDao.save(generateReader("Jonny"));
+    bookDao.tryBorrow(book1.getId(), reader.getId());
+    bookDao.tryBorrow(book2.getId(), reader.getId());
+    Map<Book, Reader> streamed = new HashMap<>();
+
+    bookDao.forEachWithReader(streamed::put);
+
+    assertThat(streamed).isEqualTo(bookDao.findAllWithReaders());
+    assertThat(streamed.keySet())
+        .extracting(Book::getId)
+        .containsExactlyInAnyOrder(book1.getId(), book2.getId());
+  }
+
+  @Test
+  void rejectedBorrowShouldNotChangeIndex() {
+    var book = bookDao.save(generateBook("Martin Eden", "Jack London"));
+    var reader1 = readerDao.save(generateReader("Jonny"));
+    var reader2 = readerDao.save(generateReader("Yevhenii"));
+    bookDao.tryBorrow(book.getId(), reader1.getId());
+
+    bookDao.tryBorrow(book.getId(), reader2.getId());
+
+    assertThat(readerDao.findReaderByBookId(book.getId())).contains(reader1);
+    assertThat(bookDao.findAllByReaderId(reader2.getId())).isEmpty();
+  }
+
+  @Test
+  void indexShouldMatchDatabase() {
+    var reader1 = readerDao.save(generateReader("Jonny"));
+    var reader2 = readerDao.save(generateReader("Yevhenii"));
+    List<Book> books =
+        bookDao.saveAll(
+            List.of(
+                generateBook("Martin Eden", "Jack London"),
+                generateBook("Home", "Tony Morrison"),
+                generateBook("Glue", "Irvine Welsh")));
+    bookDao.tryBorrow(books.get(0).getId(), reader1.getId());
+    bookDao.tryBorrow(books.get(1).getId(), reader2.getId());
+    bookDao.tryBorrow(books.get(2).getId(), reader1.getId());
+    var indexed = readerDao.findAllWithBooks();
+
+    borrowIndex.warmUp();
+
+    assertThat(readerDao.findAllWithBooks()).isEqualTo(indexed);
+  }
+
+  private static Book generateBook(String name, String author) {
+    return Book.builder().name(name).author(author).build();
+  }
+
+  private static Reader generateReader(String name) {
+    return Reader.builder().name(name).build();
+  }
+}
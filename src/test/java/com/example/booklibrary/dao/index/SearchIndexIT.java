@@ -0,0 +1,194 @@
+package com.example.booklibrary.dao.index;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.example.booklibrary.config.SearchIndexProperties;
+import com.example.booklibrary.dao.BookDao;
+import com.example.booklibrary.dao.annotation.DaoIT;
+import com.example.booklibrary.dto.BookSearchResultDto;
+import com.example.booklibrary.entity.Book;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@DaoIT
+@TestPropertySource(
+    properties = {
+      "library.search-index.enabled=true",
+      "library.search-index.snapshot=target/search-index-it.bin"
+    })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnableConfigurationProperties(SearchIndexProperties.class)
+class SearchIndexIT {
+  private static final Path SNAPSHOT = Path.of("target/search-index-it.bin");
+  @Autowired SearchIndex searchIndex;
+  @Autowired BookDao bookDao;
+  @Autowired JdbcTemplate jdbcTemplate;
+  @Autowired PlatformTransactionManager transactionManager;
+
+  @BeforeEach
+  void cleanData() throws IOException {
+    jdbcTemplate.execute("DELETE FROM book");
+    jdbcTemplate.execute("DELETE FROM reader");
+    Files.deleteIfExists(SNAPSHOT);
+    searchIndex.warmUp();
+  }
+
+  @Test
+  void saveShouldKeepIndexCurrent() {
+    var book1 = bookDao.save(generateBook("Animal Farm", "George Orwell"));
+    List<Book> books =
+        bookDao.saveAll(
+            List.of(generateBook("Orwell", "Unknown"), generateBook("Glue", "Irvine Welsh")));
+
+    List<BookSearchResultDto> actualBooks = bookDao.search("orwell", 0, 0L, 10);
+
+    assertThat(actualBooks)
+        .extracting(BookSearchResultDto::getId)
+        .containsExactly(books.get(0).getId(), book1.getId());
+    assertThat(actualBooks).extracting(BookSearchResultDto::getRank).containsExactly(0, 3);
+  }
+
+  @Test
+  void searchShouldMatchEveryTokenByPrefix() {
+    var book = bookDao.save(generateBook("Martin Eden", "Jack London"));
+    bookDao.save(generateBook("Martin Chuzzlewit", "Charles Dickens"));
+
+    assertThat(bookDao.search("mar lon", 0, 0L, 10))
+        .extracting(BookSearchResultDto::getId)
+        .containsExactly(book.getId());
+    assertThat(bookDao.search("artin", 0, 0L, 10)).isEmpty();
+  }
+
+  @Test
+  void searchShouldPageByRankAndId() {
+    var book1 = bookDao.save(generateBook("Dune", "Frank Herbert"));
+    var book2 = bookDao.save(generateBook("Dune Messiah", "Frank Herbert"));
+    var book3 = bookDao.save(generateBook("Children of Dune", "Frank Herbert"));
+
+    var firstPage = bookDao.search("dune", 0, 0L, 2);
+    var last = firstPage.get(1);
+    var secondPage = bookDao.search("dune", last.getRank(), last.getId(), 2);
+
+    assertThat(firstPage)
+        .extracting(BookSearchResultDto::getId)
+        .containsExactly(book1.getId(), book2.getId());
+    assertThat(secondPage).extracting(BookSearchResultDto::getId).containsExactly(book3.getId());
+  }
+
+  @Test
+  void searchShouldReturnTopResultsAcrossRanksPageByPage() {
+    var byAuthor = bookDao.save(generateBook("Homage to Catalonia", "Orwell Estate"));
+    var contains = bookDao.save(generateBook("Why I Write Orwell", "Unknown"));
+    var exact = bookDao.save(generateBook("Orwell", "Unknown"));
+    var prefix = bookDao.save(generateBook("Orwell on Truth", "Unknown"));
+
+    var firstPage = bookDao.search("orwell", 0, 0L, 3);
+    var last = firstPage.get(2);
+    var secondPage = bookDao.search("orwell", last.getRank(), last.getId(), 3);
+
+    assertThat(firstPage)
+        .extracting(BookSearchResultDto::getId)
+        .containsExactly(exact.getId(), prefix.getId(), byAuthor.getId());
+    assertThat(secondPage).extracting(BookSearchResultDto::getId).containsExactly(contains.getId());
+    assertThat(secondPage).extracting(BookSearchResultDto::getRank).containsExactly(3);
+  }
+
+  @Test
+  void catchUpShouldIndexBooksCommittedBelowIndexedIds() {
+    var book = bookDao.save(generateBook("Martin Eden", "Jack London"));
+    jdbcTemplate.update(
+        "INSERT INTO book(id, name, author) VALUES(?, 'Glue', 'Irvine Welsh')",
+        book.getId() + 100);
+    searchIndex.catchUp();
+    jdbcTemplate.update(
+        "INSERT INTO book(id, name, author) VALUES(?, 'Home', 'Tony Morrison')",
+        book.getId() + 50);
+
+    searchIndex.catchUp();
+
+    assertThat(searchIndex.size()).isEqualTo(3);
+    assertThat(bookDao.search("home", 0, 0L, 10))
+        .extracting(BookSearchResultDto::getId)
+        .containsExactly(book.getId() + 50);
+  }
+
+  @Test
+  void rolledBackSaveShouldNotBeIndexed() {
+    new TransactionTemplate(transactionManager)
+        .executeWithoutResult(
+            status -> {
+              bookDao.saveAll(List.of(generateBook("Glue", "Irvine Welsh")));
+              status.setRollbackOnly();
+            });
+
+    assertThat(searchIndex.size()).isZero();
+    assertThat(bookDao.search("glue", 0, 0L, 10)).isEmpty();
+  }
+
+  @Test
+  void warmUpShouldRestoreSnapshotAndCatchUp() {
+    bookDao.save(generateBook("Martin Eden", "Jack London"));
+    searchIndex.writeSnapshot(SNAPSHOT);
+    jdbcTemplate.update("INSERT INTO book(name, author) VALUES('Glue', 'Irvine Welsh')");
+
+    searchIndex.warmUp();
+
+    assertThat(searchIndex.size()).isEqualTo(2);
+    assertThat(bookDao.search("glue", 0, 0L, 10)).hasSize(1);
+  }
+
+  @Test
+  void warmUpShouldIndexBooksMissingFromSnapshotBelowItsMaxId() {
+    var book = bookDao.save(generateBook("Martin Eden", "Jack London"));
+    jdbcTemplate.update(
+        "INSERT INTO book(id, name, author) VALUES(?, 'Home', 'Tony Morrison')",
+        book.getId() + 100);
+    searchIndex.catchUp();
+    searchIndex.writeSnapshot(SNAPSHOT);
+    jdbcTemplate.update(
+        "INSERT INTO book(id, name, author) VALUES(?, 'Glue', 'Irvine Welsh')",
+        book.getId() + 50);
+
+    searchIndex.warmUp();
+
+    assertThat(searchIndex.size()).isEqualTo(3);
+    assertThat(bookDao.search("glue", 0, 0L, 10)).hasSize(1);
+  }
+
+  @Test
+  void warmUpShouldIgnoreSnapshotNewerThanCatalog() {
+    bookDao.save(generateBook("Martin Eden", "Jack London"));
+    searchIndex.writeSnapshot(SNAPSHOT);
+    jdbcTemplate.execute("DELETE FROM book");
+
+    searchIndex.warmUp();
+
+    assertThat(searchIndex.size()).isZero();
+  }
+
+  @Test
+  void warmUpShouldIgnoreCorruptSnapshot() throws IOException {
+    bookDao.save(generateBook("Martin Eden", "Jack London"));
+    Files.write(SNAPSHOT, new byte[] {1, 2, 3});
+
+    searchIndex.warmUp();
+
+    assertThat(searchIndex.size()).isEqualTo(1);
+  }
+
+  private static Book generateBook(String name, String author) {
+    return Book.builder().name(name).author(author).build();
+  }
+}
@@ -0,0 +1,61 @@
+package com.example.booklibrary.filter;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.example.booklibrary.config.ConcurrencyLimitProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class ConcurrencyLimitFilterTest {
+  private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+  @Test
+  void shouldPassRequestWhenPermitIsAvailable() throws Exception {
+    var filter = createFilter(1);
+    var chain = new MockFilterChain();
+    var response = new MockHttpServletResponse();
+
+    filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/books"), response, chain);
+
+    assertThat(chain.getRequest()).isNotNull();
+    assertThat(response.getStatus()).isEqualTo(200);
+  }
+
+  @Test
+  void shouldRejectRequestWhenNoPermitIsAvailable() throws Exception {
+    var filter = createFilter(0);
+    var chain = new MockFilterChain();
+    var response = new MockHttpServletResponse();
+
+    filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/books"), response, chain);
+
+    assertThat(chain.getRequest()).isNull();
+    assertThat(response.getStatus()).isEqualTo(503);
+    assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    assertThat(response.getContentAsString()).contains("Library is busy, please retry later");
+  }
+
+  @Test
+  void shouldNotLimitNonApiRequests() throws Exception {
+    var filter = createFilter(0);
+    var chain = new MockFilterChain();
+
+    filter.doFilter(
+        new MockHttpServletRequest("GET", "/actuator/health"),
+        new MockHttpServletResponse(),
+        chain);
+
+    assertThat(chain.getRequest()).isNotNull();
+  }
+
+  private ConcurrencyLimitFilter createFilter(int maxInFlight) {
+    return new ConcurrencyLimitFilter(
+        new ConcurrencyLimitProperties(maxInFlight, Duration.ofMillis(10)), objectMapper);
+  }
+}
@@ -0,0 +1,96 @@
+package com.example.booklibrary.logging;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.example.booklibrary.logging.AsyncHttpLogWriter.OverflowPolicy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpLogWriter;
+import org.zalando.logbook.Precorrelation;
+
+class AsyncHttpLogWriterTest {
+  private final List<String> records = new CopyOnWriteArrayList<>();
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @Test
+  void writeShouldHandRecordsToDelegateOffCallerThread() throws Exception {
+    release.countDown();
+    var writer = new AsyncHttpLogWriter(new BlockingWriter(), 16, OverflowPolicy.DROP, 1, 100);
+
+    writer.write(mock(Precorrelation.class), "request");
+    writer.write(mock(Correlation.class), "response");
+    writer.close();
+
+    assertThat(records).containsExactly("request", "response");
+    assertThat(writer.writtenCount()).isEqualTo(2);
+    assertThat(writer.droppedCount()).isZero();
+  }
+
+  @Test
+  void writeShouldDropRecordsWhenBufferIsFull() throws Exception {
+    var writer = new AsyncHttpLogWriter(new BlockingWriter(), 1, OverflowPolicy.DROP, 1, 100);
+
+    for (int i = 0; i < 10; i++) {
+      writer.write(mock(Precorrelation.class), "request " + i);
+    }
+    release.countDown();
+    writer.close();
+
+    assertThat(writer.droppedCount()).isPositive();
+    assertThat(writer.writtenCount() + writer.droppedCount()).isEqualTo(10);
+  }
+
+  @Test
+  void writeShouldSampleRecordsWhenBufferIsFull() throws Exception {
+    var writer = new AsyncHttpLogWriter(new BlockingWriter(), 1, OverflowPolicy.SAMPLE, 2, 100);
+
+    for (int i = 0; i < 10; i++) {
+      writer.write(mock(Precorrelation.class), "request " + i);
+    }
+    release.countDown();
+    writer.close();
+
+    assertThat(writer.droppedCount()).isBetween(1L, 5L);
+    assertThat(writer.writtenCount() + writer.droppedCount()).isEqualTo(10);
+  }
+
+  @Test
+  void writeShouldTruncateLongRecords() throws Exception {
+    release.countDown();
+    var writer = new AsyncHttpLogWriter(new BlockingWriter(), 16, OverflowPolicy.DROP, 1, 5);
+
+    writer.write(mock(Precorrelation.class), "0123456789");
+    writer.close();
+
+    assertThat(records).containsExactly("01234...[truncated]");
+  }
+
+  private class BlockingWriter implements HttpLogWriter {
+    @Override
+    public void write(Precorrelation precorrelation, String request) {
+      append(request);
+    }
+
+    @Override
+    public void write(Correlation correlation, String response) {
+      append(response);
+    }
+
+    private void append(String message) {
+      if (!Thread.currentThread().getName().equals("http-log-writer")) {
+        records.add(message);
+        return;
+      }
+      try {
+        release.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      records.add(message);
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package com.example.booklibrary.logging;
+
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Sink;
+
+class SamplingHttpLogStrategyTest {
+  private final SamplingHttpLogStrategy strategy =
+      new SamplingHttpLogStrategy(3, List.of("/book-library/api/v1/books"));
+  private final Sink sink = mock(Sink.class);
+
+  @Test
+  void writeShouldSampleSuccessfulResponses() throws Exception {
+    var response = response(200);
+
+    for (int i = 0; i < 6; i++) {
+      strategy.write(mock(Correlation.class), mock(HttpRequest.class), response, sink);
+    }
+
+    verify(sink, times(2)).writeBoth(any(), any(), any());
+  }
+
+  @Test
+  void writeShouldAlwaysLogErrorResponses() throws Exception {
+    strategy.write(mock(Correlation.class), mock(HttpRequest.class), response(200), sink);
+    strategy.write(mock(Correlation.class), mock(HttpRequest.class), response(404), sink);
+    strategy.write(mock(Correlation.class), mock(HttpRequest.class), response(500), sink);
+
+    verify(sink, times(3)).writeBoth(any(), any(), any());
+  }
+
+  @Test
+  void processShouldSkipRequestBodiesForHeadersOnlyPaths() throws Exception {
+    var request = request("/book-library/api/v1/books");
+
+    strategy.process(request);
+
+    verify(request).withoutBody();
+    verify(request, never()).withBody();
+  }
+
+  @Test
+  void writeShouldSkipBodiesOfSuccessfulHeadersOnlyResponses() throws Exception {
+    var request = request("/book-library/api/v1/books");
+    var response = response(200);
+    var withoutBody = mock(HttpResponse.class);
+    when(response.withoutBody()).thenReturn(withoutBody);
+    var correlation = mock(Correlation.class);
+
+    strategy.process(request, response);
+    strategy.write(correlation, request, response, sink);
+
+    verify(response).withBody();
+    verify(sink).writeBoth(correlation, request, withoutBody);
+  }
+
+  @Test
+  void writeShouldKeepErrorBodiesForHeadersOnlyPaths() throws Exception {
+    var request = request("/book-library/api/v1/books");
+    var response = response(200);
+    var correlation = mock(Correlation.class);
+
+    strategy.process(request, response);
+    when(response.getStatus()).thenReturn(404);
+    strategy.write(correlation, request, response, sink);
+
+    verify(response).withBody();
+    verify(response, never()).withoutBody();
+    verify(sink).writeBoth(correlation, request, response);
+  }
+
+  @Test
+  void writeShouldKeepBodiesForNonGetRequests() throws Exception {
+    var request = request("POST", "/book-library/api/v1/books");
+    var response = response(201);
+    var correlation = mock(Correlation.class);
+
+    strategy.process(request);
+    strategy.process(request, response);
+    strategy.write(correlation, request, response, sink);
+
+    verify(request).withBody();
+    verify(response, never()).withoutBody();
+    verify(sink).writeBoth(correlation, request, response);
+  }
+
+  @Test
+  void writeShouldKeepBodiesForOtherPaths() throws Exception {
+    var request = request("/book-library/api/v1/books/1/reader");
+    var response = response(200);
+    var correlation = mock(Correlation.class);
+
+    strategy.process(request);
+    strategy.process(request, response);
+    strategy.write(correlation, request, response, sink);
+
+    verify(request).withBody();
+    verify(response, never()).withoutBody();
+    verify(sink).writeBoth(correlation, request, response);
+  }
+
+  private static HttpRequest request(String path) {
+    return request("GET", path);
+  }
+
+  private static HttpRequest request(String method, String path) {
+    var request = mock(HttpRequest.class);
+    when(request.getMethod()).thenReturn(method);
+    when(request.getPath()).thenReturn(path);
+    return request;
+  }
+
+  private static HttpResponse response(int status) {
+    var response = mock(HttpResponse.class);
+    when(response.getStatus()).thenReturn(status);
+    return response;
+  }
+}
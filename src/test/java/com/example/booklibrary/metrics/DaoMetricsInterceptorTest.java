@@ -0,0 +1,62 @@
+package com.example.booklibrary.metrics;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.example.booklibrary.dao.BookDao;
+import com.example.booklibrary.entity.Book;
+import com.example.booklibrary.exception.DaoOperationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+class DaoMetricsInterceptorTest {
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final BookDao bookDao = mock(BookDao.class);
+  private final BookDao proxy = createProxy();
+
+  @Test
+  void invokeShouldRecordTimerAndRows() {
+    when(bookDao.findAll()).thenReturn(List.of(new Book(), new Book()));
+
+    proxy.findAll();
+    proxy.findAll();
+
+    var timer = registry.get("library.dao.calls").tag("method", "findAll").timer();
+    assertThat(timer.count()).isEqualTo(2);
+    assertThat(registry.get("library.dao.rows").tag("method", "findAll").counter().count())
+        .isEqualTo(4);
+  }
+
+  @Test
+  void invokeShouldCountOptionalAsSingleRow() {
+    when(bookDao.findById(1L)).thenReturn(Optional.of(new Book()));
+    when(bookDao.findById(2L)).thenReturn(Optional.empty());
+
+    proxy.findById(1L);
+    proxy.findById(2L);
+
+    assertThat(registry.get("library.dao.rows").tag("method", "findById").counter().count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void invokeShouldCountDaoOperationException() {
+    when(bookDao.findAll()).thenThrow(new DaoOperationException("Error"));
+
+    assertThatThrownBy(proxy::findAll).isInstanceOf(DaoOperationException.class);
+
+    assertThat(registry.get("library.dao.errors").tag("method", "findAll").counter().count())
+        .isEqualTo(1);
+    assertThat(registry.get("library.dao.calls").tag("method", "findAll").timer().count())
+        .isEqualTo(1);
+  }
+
+  private BookDao createProxy() {
+    var factory = new ProxyFactory(bookDao);
+    factory.addAdvice(new DaoMetricsInterceptor(() -> registry));
+    return (BookDao) factory.getProxy();
+  }
+}
@@ -0,0 +1,195 @@
+package com.example.booklibrary.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.example.booklibrary.config.BookImportProperties;
+import com.example.booklibrary.dao.BookDao;
+import com.example.booklibrary.dto.BookImportResultDto;
+import com.example.booklibrary.dto.ImportChunkDto;
+import com.example.booklibrary.entity.Book;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BookImportServiceTest {
+  @Mock BookDao bookDao;
+
+  BookImportService bookImportService;
+
+  @BeforeEach
+  void setUp() {
+    bookImportService =
+        new BookImportService(
+            bookDao,
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            new ObjectMapper(),
+            new BookImportProperties(2),
+            new CatalogVersion());
+  }
+
+  @Test
+  void importBooksFromJsonArray() {
+    var ids = new AtomicLong();
+    when(bookDao.saveAll(anyList()))
+        .thenAnswer(
+            invocation -> {
+              List<Book> books = invocation.getArgument(0);
+              books.forEach(book -> book.setId(ids.incrementAndGet()));
+              return books;
+            });
+
+    var result =
+        importBooks(
+            """
+            [
+              {"name": "Martin Eden", "author": "Jack London"},
+              {"name": "The Iron Heel", "author": "Jack London"},
+              {"name": "Nineteen Eighty-Four", "author": "George Orwell"}
+            ]
+            """);
+
+    verify(bookDao, times(2)).saveAll(anyList());
+    assertThat(result.getImported()).isEqualTo(3);
+    assertThat(result.getRejected()).isZero();
+    assertThat(result.getErrors()).isEmpty();
+    assertThat(result.getChunks())
+        .extracting(ImportChunkDto::getIds)
+        .containsExactly(List.of(1L, 2L), List.of(3L));
+  }
+
+  @Test
+  void importBooksFromNdjson() {
+    when(bookDao.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    var result =
+        importBooks(
+            """
+            {"name": "Martin Eden", "author": "Jack London"}
+            {"name": "The Iron Heel", "author": "Jack London"}
+            """);
+
+    verify(bookDao, times(1)).saveAll(anyList());
+    assertThat(result.getImported()).isEqualTo(2);
+    assertThat(result.getChunks()).hasSize(1);
+  }
+
+  @Test
+  void importBooksShouldSkipInvalidBooks() {
+    when(bookDao.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    var result =
+        importBooks(
+            """
+            {"name": "Martin Eden", "author": "Jack London"}
+            {"name": "x", "author": "Jack London"}
+            {"id": 3, "name": "The Iron Heel", "author": "Jack London"}
+            """);
+
+    assertThat(result.getImported()).isEqualTo(1);
+    assertThat(result.getRejected()).isEqualTo(2);
+    assertThat(result.getErrors())
+        .extracting(error -> error.getItem() + ":" + error.getField())
+        .containsExactly("1:name", "2:id");
+    assertThat(result.getErrors().get(1).getMessage())
+        .isEqualTo("Request body should not contain book id value");
+  }
+
+  @Test
+  void importBooksShouldReportMalformedInput() {
+    when(bookDao.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    var result =
+        importBooks(
+            """
+            {"name": "Martin Eden", "author": "Jack London"}
+            {"name": "The Iron Heel", "author":
+            """);
+
+    assertThat(result.getImported()).isEqualTo(1);
+    assertThat(result.getRejected()).isEqualTo(1);
+    assertThat(result.getErrors()).hasSize(1);
+    assertThat(result.getErrors().get(0).getItem()).isEqualTo(1);
+    assertThat(result.getErrors().get(0).getMessage()).startsWith("Malformed book");
+  }
+
+  @Test
+  void importBooksShouldNotSaveAnythingIfAllBooksAreInvalid() {
+    var result = importBooks("[{\"name\": \"x\", \"author\": \"y\"}]");
+
+    verifyNoInteractions(bookDao);
+    assertThat(result.getImported()).isZero();
+    assertThat(result.getRejected()).isEqualTo(1);
+  }
+
+  @Test
+  void ingestCsvShouldSkipHeader() {
+    var copied = new StringWriter();
+    when(bookDao.copyFromCsv(any()))
+        .thenAnswer(
+            invocation -> {
+              Reader csvBooks = invocation.getArgument(0);
+              csvBooks.transferTo(copied);
+              return 2L;
+            });
+
+    var report =
+        bookImportService.ingestCsv(
+            toInputStream(
+                """
+                name,author
+                "Martin Eden","Jack London"
+                "The Iron Heel","Jack London"
+                """),
+            true);
+
+    assertThat(report.getRows()).isEqualTo(2);
+    assertThat(report.getRowsPerSecond()).isPositive();
+    assertThat(copied.toString())
+        .isEqualTo("\"Martin Eden\",\"Jack London\"\n\"The Iron Heel\",\"Jack London\"\n");
+  }
+
+  @Test
+  void ingestNdjsonShouldConvertBooksToCsv() {
+    var copied = new StringWriter();
+    when(bookDao.copyFromCsv(any()))
+        .thenAnswer(
+            invocation -> {
+              Reader csvBooks = invocation.getArgument(0);
+              csvBooks.transferTo(copied);
+              return 2L;
+            });
+
+    var report =
+        bookImportService.ingestNdjson(
+            toInputStream(
+                """
+                {"name": "Martin Eden", "author": "Jack London"}
+                {"name": "Say \\"Hi\\"", "author": null}
+                """));
+
+    assertThat(report.getRows()).isEqualTo(2);
+    assertThat(copied.toString())
+        .isEqualTo("\"Martin Eden\",\"Jack London\"\n\"Say \"\"Hi\"\"\",\n");
+  }
+
+  private static InputStream toInputStream(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private BookImportResultDto importBooks(String books) {
+    return bookImportService.importBooks(toInputStream(books));
+  }
+}
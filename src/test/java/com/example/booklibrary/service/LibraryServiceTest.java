@@ -5,14 +5,22 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import com.example.booklibrary.dao.BookDao;
+import com.example.booklibrary.dao.CirculationStatus;
 import com.example.booklibrary.dao.ReaderDao;
 import com.example.booklibrary.dto.BookDto;
+import com.example.booklibrary.dto.BookQueryDto;
+import com.example.booklibrary.dto.BookSearchResultDto;
+import com.example.booklibrary.dto.BookSortKey;
 import com.example.booklibrary.dto.BookWithReaderDto;
+import com.example.booklibrary.dto.CirculationOperation;
+import com.example.booklibrary.dto.CirculationRequestDto;
 import com.example.booklibrary.dto.ReaderWithBooksDto;
 import com.example.booklibrary.entity.Book;
 import com.example.booklibrary.entity.Reader;
+import com.example.booklibrary.exception.BookVersionMismatchException;
 import com.example.booklibrary.exception.LibraryServiceException;
 import java.util.*;
+import java.util.function.BiConsumer;
 
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -29,6 +37,7 @@ class LibraryServiceTest {
   private static final String READER_NOT_FOUND = "This Reader ID doesn't exist!";
   @Mock BookDao bookDao;
   @Mock ReaderDao readerDao;
+  @Mock CatalogVersion catalogVersion;
 
   @InjectMocks LibraryService libraryService;
 
@@ -56,6 +65,73 @@ class LibraryServiceTest {
     assertThat(actualBooks).isEmpty();
   }
 
+  @Test
+  void findBooksPage() {
+    List<BookDto> expectedBooks = List.of(new BookDto(3L, "X", "X"), new BookDto(4L, "Y", "Y"));
+    when(bookDao.findAllAfter(2L, 2)).thenReturn(expectedBooks);
+
+    List<BookDto> actualBooks = libraryService.findBooksPage(2L, 2);
+
+    verify(bookDao, never()).findAll();
+    assertThat(actualBooks).isEqualTo(expectedBooks);
+  }
+
+  @Test
+  void findBooks() {
+    var bookQuery =
+        BookQueryDto.builder().available(true).sort(BookSortKey.NAME).limit(10).build();
+    List<BookDto> expectedBooks = List.of(new BookDto(1L, "X", "X"));
+    when(bookDao.findAllMatching(bookQuery)).thenReturn(expectedBooks);
+
+    List<BookDto> actualBooks = libraryService.findBooks(bookQuery);
+
+    assertThat(actualBooks).isEqualTo(expectedBooks);
+  }
+
+  @Test
+  void findBooksIfCursorValueIsMissing() {
+    var bookQuery =
+        BookQueryDto.builder().sort(BookSortKey.AUTHOR).afterId(5L).limit(10).build();
+
+    var exception =
+        assertThrows(LibraryServiceException.class, () -> libraryService.findBooks(bookQuery));
+
+    assertThat(exception.getMessage())
+        .isEqualTo("Cursor value is required when books are not sorted by ID");
+    verifyNoInteractions(bookDao);
+  }
+
+  @Test
+  void searchBooks() {
+    List<BookSearchResultDto> expectedBooks = List.of(new BookSearchResultDto(1L, "X", "X", 0));
+    when(bookDao.search("orwell", 0, 0L, 10)).thenReturn(expectedBooks);
+
+    List<BookSearchResultDto> actualBooks = libraryService.searchBooks(" orwell ", 0, 0L, 10);
+
+    assertThat(actualBooks).isEqualTo(expectedBooks);
+  }
+
+  @Test
+  void findBooksByIds() {
+    when(bookDao.findAllByIds(Set.of(3L, 1L, 99L)))
+        .thenReturn(List.of(new BookDto(1L, "X", "X"), new BookDto(3L, "Y", "Y")));
+
+    var lookup = libraryService.findBooksByIds(List.of(3L, 1L, 99L, 3L));
+
+    assertThat(lookup.getFound()).extracting(BookDto::getId).containsExactly(3L, 1L);
+    assertThat(lookup.getMissingIds()).containsExactly(99L);
+  }
+
+  @Test
+  void findReadersByIds() {
+    when(readerDao.findAllByIds(Set.of(2L, 1L))).thenReturn(List.of(new Reader(1L, "X")));
+
+    var lookup = libraryService.findReadersByIds(List.of(2L, 1L));
+
+    assertThat(lookup.getFound()).extracting(Reader::getId).containsExactly(1L);
+    assertThat(lookup.getMissingIds()).containsExactly(2L);
+  }
+
   @Test
   void findAllReader() {
     List<Reader> expectedReaders =
@@ -148,27 +224,27 @@ class LibraryServiceTest {
     libraryService.addNewBook(book);
 
     verify(bookDao).save(book);
+    verify(catalogVersion).increment();
   }
 
   @Test
   void borrowBook() {
     var bookId = 1L;
     var readerId = 1L;
-    var book = Book.builder().id(bookId).name("Martin Eden").author("Jack London").build();
-    var reader = Reader.builder().id(readerId).name("Yevhenii").build();
-    when(bookDao.findById(bookId)).thenReturn(Optional.of(book));
-    when(readerDao.findById(readerId)).thenReturn(Optional.of(reader));
-    when(readerDao.findReaderByBookId(bookId)).thenReturn(Optional.empty());
+    when(bookDao.tryBorrow(bookId, readerId)).thenReturn(CirculationStatus.SUCCESS);
 
     libraryService.borrowBook(bookId, readerId);
-    verify(bookDao).borrow(bookId, readerId);
+
+    verify(bookDao).tryBorrow(bookId, readerId);
+    verify(catalogVersion).increment();
+    verifyNoInteractions(readerDao);
   }
 
   @Test
   void borrowBookIfBookIsNotFound() {
     var bookId = 99999L;
     var readerId = 1L;
-    when(bookDao.findById(bookId)).thenReturn(Optional.empty());
+    when(bookDao.tryBorrow(bookId, readerId)).thenReturn(CirculationStatus.BOOK_NOT_FOUND);
 
     var exception =
         assertThrows(
@@ -176,19 +252,26 @@ class LibraryServiceTest {
 
     assertThat(exception.getClass()).isEqualTo(LibraryServiceException.class);
     assertThat(exception.getMessage()).isEqualTo(BOOK_NOT_FOUND);
-    verifyNoInteractions(readerDao);
-    verify(bookDao, times(0)).borrow(bookId, readerId);
+    verifyNoInteractions(readerDao, catalogVersion);
   }
 
   @Test
-  void borrowBookIfReaderIsNotFound() {
+  void borrowBookIfVersionDoesNotMatch() {
     var bookId = 1L;
-    var readerId = 99999L;
+    var readerId = 1L;
+    when(bookDao.tryBorrow(bookId, readerId, 2L)).thenReturn(CirculationStatus.VERSION_MISMATCH);
 
-    var book = Book.builder().id(bookId).name("Martin Eden").author("Jack London").build();
+    assertThrows(
+        BookVersionMismatchException.class, () -> libraryService.borrowBook(bookId, readerId, 2L));
 
-    when(bookDao.findById(bookId)).thenReturn(Optional.of(book));
-    when(readerDao.findById(readerId)).thenReturn(Optional.empty());
+    verifyNoInteractions(catalogVersion);
+  }
+
+  @Test
+  void borrowBookIfReaderIsNotFound() {
+    var bookId = 1L;
+    var readerId = 99999L;
+    when(bookDao.tryBorrow(bookId, readerId)).thenReturn(CirculationStatus.READER_NOT_FOUND);
 
     var exception =
         assertThrows(
@@ -196,18 +279,14 @@ class LibraryServiceTest {
 
     assertThat(exception.getClass()).isEqualTo(LibraryServiceException.class);
     assertThat(exception.getMessage()).isEqualTo(READER_NOT_FOUND);
-    verify(bookDao, times(0)).borrow(bookId, readerId);
   }
 
   @Test
   void borrowBookIfBookIsBorrowed() {
     var bookId = 1L;
     var readerId = 1L;
-    var book = new Book(bookId, "Martin Eden", "Jack London", readerId);
-    var reader = new Reader(readerId, "Yevhenii");
-    when(bookDao.findById(bookId)).thenReturn(Optional.of(book));
-    when(readerDao.findById(readerId)).thenReturn(Optional.of(reader));
-    when(readerDao.findReaderByBookId(bookId)).thenReturn(Optional.of(reader));
+    when(bookDao.tryBorrow(bookId, readerId))
+        .thenReturn(CirculationStatus.BOOK_ALREADY_BORROWED);
 
     var exception =
         assertThrows(
@@ -215,7 +294,6 @@ class LibraryServiceTest {
 
     assertThat(exception.getClass()).isEqualTo(LibraryServiceException.class);
     assertThat(exception.getMessage()).isEqualTo("Cannot borrow already borrowed Book!");
-    verify(bookDao, times(0)).borrow(bookId, readerId);
   }
 
   @Test
@@ -244,6 +322,35 @@ class LibraryServiceTest {
         });
   }
 
+  @Test
+  void findAllReadersWithOptionalBooks() {
+    Map<Reader, List<BookDto>> readersWithBooks = new LinkedHashMap<>();
+    readersWithBooks.put(new Reader(1L, "X"), List.of());
+    readersWithBooks.put(new Reader(2L, "Y"), List.of(new BookDto(3L, "dummy", "dummy")));
+    when(readerDao.findAllWithOptionalBooks()).thenReturn(readersWithBooks);
+
+    List<ReaderWithBooksDto> actualResult = libraryService.findAllReadersWithOptionalBooks();
+
+    assertThat(actualResult).extracting(ReaderWithBooksDto::getId).containsExactly(1L, 2L);
+    assertThat(actualResult.get(0).getBooks()).isEmpty();
+    assertThat(actualResult.get(1).getBooks()).hasSize(1);
+    verify(readerDao, never()).findAllWithBooks();
+  }
+
+  @Test
+  void findAllBooksWithOptionalReaders() {
+    Map<Book, Reader> booksWithReaders = new LinkedHashMap<>();
+    booksWithReaders.put(new Book(1L, "A", "A", null, 0L), null);
+    booksWithReaders.put(new Book(2L, "B", "B", 1L, 0L), new Reader(1L, "X"));
+    when(bookDao.findAllWithOptionalReaders()).thenReturn(booksWithReaders);
+
+    List<BookWithReaderDto> actualResult = libraryService.findAllBooksWithOptionalReaders();
+
+    assertThat(actualResult).extracting(BookWithReaderDto::getId).containsExactly(1L, 2L);
+    assertThat(actualResult.get(0).getReader()).isNull();
+    assertThat(actualResult.get(1).getReader()).isEqualTo(new Reader(1L, "X"));
+  }
+
   @Test
   void findAllReadersWithBooksIfMapIsEmpty() {
     Map<Reader, List<BookDto>> expectedResult = Map.of();
@@ -296,22 +403,76 @@ class LibraryServiceTest {
     assertThat(actualResult).isEmpty();
   }
 
+  @Test
+  void forEachBookWithReader() {
+    var book = Book.builder().id(1L).name("dummy1").author("dummy2").readerId(1L).build();
+    var reader = Reader.builder().id(1L).name("dummy").build();
+    doAnswer(
+            invocation -> {
+              BiConsumer<Book, Reader> action = invocation.getArgument(0);
+              action.accept(book, reader);
+              return null;
+            })
+        .when(bookDao)
+        .forEachWithReader(any());
+    List<BookWithReaderDto> actualResult = new ArrayList<>();
+
+    libraryService.forEachBookWithReader(actualResult::add);
+
+    assertThat(actualResult).hasSize(1);
+    assertThat(actualResult.get(0).getId()).isEqualTo(1L);
+    assertThat(actualResult.get(0).getName()).isEqualTo("dummy1");
+    assertThat(actualResult.get(0).getReader()).isEqualTo(reader);
+  }
+
+  @Test
+  void circulate() {
+    var operations =
+        List.of(
+            new CirculationRequestDto(CirculationOperation.BORROW, 1L, 2L),
+            new CirculationRequestDto(CirculationOperation.RETURN, 3L, null));
+    when(bookDao.circulateAll(operations))
+        .thenReturn(List.of(CirculationStatus.SUCCESS, CirculationStatus.BOOK_NOT_BORROWED));
+
+    var results = libraryService.circulate(operations);
+
+    assertThat(results).hasSize(2);
+    assertThat(results.get(0).getStatus()).isEqualTo(CirculationStatus.SUCCESS);
+    assertThat(results.get(0).getErrorMessage()).isNull();
+    assertThat(results.get(1).getBookId()).isEqualTo(3L);
+    assertThat(results.get(1).getStatus()).isEqualTo(CirculationStatus.BOOK_NOT_BORROWED);
+    assertThat(results.get(1).getErrorMessage())
+        .isEqualTo("Cannot return Book. Book is already in the Library!");
+    verify(catalogVersion).increment();
+  }
+
+  @Test
+  void circulateIfNothingChanged() {
+    var operations = List.of(new CirculationRequestDto(CirculationOperation.RETURN, 3L, null));
+    when(bookDao.circulateAll(operations)).thenReturn(List.of(CirculationStatus.BOOK_NOT_FOUND));
+
+    var results = libraryService.circulate(operations);
+
+    assertThat(results.get(0).getErrorMessage()).isEqualTo(BOOK_NOT_FOUND);
+    verifyNoInteractions(catalogVersion);
+  }
+
   @Test
   void returnBookToLibrary() {
     var bookId = 1L;
-    var reader = new Reader(1L, "Yevhenii");
-    var book = new Book(bookId, "Martin Eden", "Jack London", reader.getId());
-    when(bookDao.findById(bookId)).thenReturn(Optional.of(book));
-    when(readerDao.findReaderByBookId(bookId)).thenReturn(Optional.of(reader));
+    when(bookDao.tryReturn(bookId)).thenReturn(CirculationStatus.SUCCESS);
 
     libraryService.returnBookToLibrary(bookId);
-    verify(bookDao).returnBook(bookId);
+
+    verify(bookDao).tryReturn(bookId);
+    verify(catalogVersion).increment();
+    verifyNoInteractions(readerDao);
   }
 
   @Test
   void returnBookToLibraryIfBookDoesNotExists() {
     var bookId = 99999L;
-    when(bookDao.findById(bookId)).thenReturn(Optional.empty());
+    when(bookDao.tryReturn(bookId)).thenReturn(CirculationStatus.BOOK_NOT_FOUND);
 
     var exception =
         assertThrows(
@@ -320,16 +481,12 @@ class LibraryServiceTest {
     assertThat(exception.getClass()).isEqualTo(LibraryServiceException.class);
     assertThat(exception.getMessage()).isEqualTo(BOOK_NOT_FOUND);
     verifyNoInteractions(readerDao);
-    verify(bookDao, times(0)).returnBook(bookId);
   }
 
   @Test
   void returnBookToLibraryIfBookIsInLibrary() {
     var bookId = 1L;
-    var book = Book.builder().id(bookId).name("Martin Eden").author("Jack London").build();
-
-    when(bookDao.findById(bookId)).thenReturn(Optional.of(book));
-    when(readerDao.findReaderByBookId(bookId)).thenReturn(Optional.empty());
+    when(bookDao.tryReturn(bookId)).thenReturn(CirculationStatus.BOOK_NOT_BORROWED);
 
     var exception =
         assertThrows(
@@ -338,7 +495,5 @@ class LibraryServiceTest {
     assertThat(exception.getClass()).isEqualTo(LibraryServiceException.class);
     assertThat(exception.getMessage())
         .isEqualTo("Cannot return Book. Book is already in the Library!");
-
-    verify(bookDao, times(0)).returnBook(bookId);
   }
 }